@@ -4,17 +4,48 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponseWrapper;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
+import com.arraywork.autumn.helper.BandwidthLimiter;
+import com.arraywork.autumn.helper.BandwidthLimiter.Stream;
+import com.arraywork.autumn.helper.CompressedVariantCache;
+import com.arraywork.autumn.helper.CompressedVariantCache.Variant;
+import com.arraywork.autumn.helper.FileMetadataCache;
+import com.arraywork.autumn.helper.FileMetadataCache.Metadata;
+import com.arraywork.autumn.helper.SmallFileCache;
+import com.arraywork.autumn.util.HttpUtils;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * Static Resource Handler
  *
@@ -23,64 +54,326 @@ import org.springframework.stereotype.Component;
  * @since 2024/04/29
  */
 @Component
+@Slf4j
 public class StaticResourceHandler {
 
     private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final long SENDFILE_THRESHOLD = 48 * 1024; // Same as tomcat's default sendfileSize
+
+    // Request attributes of tomcat connector sendfile (see org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final int METADATA_CACHE_SIZE = 10_000;
+    private static final long MIN_COMPRESS_SIZE = 1024; // Not worth compressing smaller files
+    private static final Set<String> COMPRESSIBLE_TYPES = Set.of(
+        "application/javascript", "application/json", "application/xml", "application/xhtml+xml",
+        "application/wasm", "image/svg+xml", "image/x-icon", "font/ttf", "font/otf");
+
+    private final FileMetadataCache metadataCache = new FileMetadataCache(METADATA_CACHE_SIZE);
+
+    @Setter
+    private TransferMode transferMode = TransferMode.ZERO_COPY;
+    @Setter // Serve sibling '.br' or '.gz' file if exists
+    private boolean precompressed = true;
+    @Setter // Compress on first request if set, otherwise disabled
+    private CompressedVariantCache variantCache;
+    @Setter // Keep small hot files in memory if set, otherwise disabled
+    private SmallFileCache smallFileCache;
+    @Setter // Total timeout of async transfer in milliseconds, stalled writes are timed out by connector
+    private long asyncTimeout = 0;
+    @Setter // Throttle the transfers if set, otherwise unlimited
+    private BandwidthLimiter bandwidthLimiter;
+
+    private ScheduledExecutorService scheduler;
 
     /** Serve static resources request */
     public void serve(Path path, HttpServletRequest request, HttpServletResponse response) throws IOException {
-        Resource resource = new FileSystemResource(path);
+        Metadata metadata = metadataCache.get(path);
 
         // If resource not exists, return 404
-        if (!resource.exists()) {
+        if (metadata == null) {
             response.sendError(HttpServletResponse.SC_NOT_FOUND);
             return;
         }
 
+        // Negotiate the content encoding of compressible resource,
+        // the selected variant has its own length and entity tag
+        String mimeType = request.getServletContext().getMimeType(path.getFileName().toString());
+        String encoding = null;
+        if (isCompressible(mimeType)) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            Representation representation = negotiate(path, metadata, request);
+            path = representation.path();
+            metadata = representation.metadata();
+            encoding = representation.encoding();
+        }
+
         // If resource not modified, return 304
-        long lastModified = resource.lastModified();
-        long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
-        if (checkNotModified(lastModified, ifModifiedSince)) {
+        long lastModified = metadata.lastModified();
+        if (checkNotModified(request, metadata)) {
+            response.setHeader(HttpHeaders.ETAG, metadata.etag());
             response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
             return;
         }
 
-        // Check range http header
-        long total = resource.contentLength();
-        long start = 0, end = total;
-        String range = request.getHeader(HttpHeaders.RANGE);
+        // If no range is satisfiable, return 416
+        long total = metadata.size();
+        List<ByteRange> ranges = ByteRange.parse(request.getHeader(HttpHeaders.RANGE), total);
+        if (ranges != null && !checkIfRange(request, metadata)) {
+            ranges = null; // Representation changed, send the whole
+        }
+        if (ranges != null && ranges.isEmpty()) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + total);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
 
-        if (range != null) {
-            // If cannot parse range, return 416
-            Matcher matcher = Pattern.compile("bytes=(\\d+)\\-(\\d+)?").matcher(range);
-            if (!matcher.find()) {
-                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + total);
-                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        // If too many concurrent streams of the client, return 429
+        Stream stream = null;
+        if (bandwidthLimiter != null) {
+            stream = bandwidthLimiter.open(HttpUtils.getIpAddress(request));
+            if (stream == null) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
                 return;
             }
+        }
 
-            start = Long.parseLong(matcher.group(1));
-            end = matcher.group(2) != null ? Long.parseLong(matcher.group(2)) : total - 1;
-            end = Math.min(end, total - 1);
-
-            // Set range response headers
-            response.setContentLengthLong(end - start + 1);
+        // The stream is released by the async writer if the transfer is handed over
+        try {
+            // Set generic response headers
+            if (encoding != null) response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
             response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
-            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + '-' + end + '/' + total);
-            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.ETAG, metadata.etag());
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+            response.setBufferSize(DEFAULT_BUFFER_SIZE);
+
+            // Multiple ranges are answered as a multipart stream
+            if (ranges != null && ranges.size() > 1) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                transferMultipart(path, response, mimeType, ranges, total, stream);
+                return;
+            }
+
+            // Single range or the whole resource
+            ByteRange range = ranges != null ? ranges.get(0) : new ByteRange(0, total - 1);
+            if (ranges != null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, range.toContentRange(total));
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            }
+            response.setContentType(mimeType);
+            response.setContentLengthLong(range.length());
+
+            // Streaming resource bytes
+            if (range.length() > 0) {
+                transfer(path, metadata, request, response, range.start(), range.length(), stream);
+            }
+        } finally {
+            if (stream != null && !request.isAsyncStarted()) stream.close();
         }
+    }
+
+    /**
+     * Select the precompressed sibling (brotli preferred) or the gzip variant
+     * compressed on the fly according to Accept-Encoding, or the identity
+     */
+    private Representation negotiate(Path path, Metadata metadata, HttpServletRequest request) throws IOException {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) return new Representation(path, metadata, null);
 
-        // Set generic response headers
-        String mimeType = request.getServletContext().getMimeType(resource.getFilename());
-        response.setContentType(mimeType);
-        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
-        response.setBufferSize(DEFAULT_BUFFER_SIZE);
+        // Stale sibling that older than the original file is ignored
+        if (precompressed) {
+            for (String encoding : List.of("br", "gzip")) {
+                if (!isAccepted(acceptEncoding, encoding)) continue;
+                String extension = encoding.equals("br") ? ".br" : ".gz";
+                Path sibling = path.resolveSibling(path.getFileName() + extension);
+                Metadata compressed = metadataCache.get(sibling);
+                if (compressed != null && compressed.lastModified() >= metadata.lastModified()) {
+                    return new Representation(sibling, compressed, encoding);
+                }
+            }
+        }
+
+        // Compression failure (such as disk full) should not fail the request
+        if (variantCache != null && metadata.size() >= MIN_COMPRESS_SIZE && isAccepted(acceptEncoding, "gzip")) {
+            try {
+                Variant variant = variantCache.get(path, metadata.etag());
+                String etag = metadata.etag().substring(0, metadata.etag().length() - 1) + "-gzip\"";
+                return new Representation(variant.file(), new Metadata(variant.size(), metadata.lastModified(), etag), "gzip");
+            } catch (IOException e) {
+                log.warn("Unable to compress {}, fallback to identity: {}", path, e.toString());
+            }
+        }
+        return new Representation(path, metadata, null);
+    }
+
+    /** Check whether the content coding is acceptable (q-value is not zero) */
+    private boolean isAccepted(String acceptEncoding, String encoding) {
+        Boolean wildcard = null;
+        for (String item : acceptEncoding.split(",")) {
+            String[] params = item.split(";");
+            String coding = params[0].trim();
+            boolean accepted = true;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+            if (coding.equalsIgnoreCase(encoding)) return accepted;
+            if (coding.equals("*")) wildcard = accepted;
+        }
+        return wildcard != null && wildcard;
+    }
 
-        // Streaming resource bytes
-        try (InputStream input = resource.getInputStream();
+    /** Check whether the mime type is worth compressing */
+    private boolean isCompressible(String mimeType) {
+        if (mimeType == null) return false;
+        int index = mimeType.indexOf(';');
+        String type = (index < 0 ? mimeType : mimeType.substring(0, index)).trim().toLowerCase();
+        return type.startsWith("text/") || type.endsWith("+json") || type.endsWith("+xml")
+            || COMPRESSIBLE_TYPES.contains(type);
+    }
+
+    /**
+     * Transfer the file region to response, write from the small file cache if
+     * enabled, or hand it over to the connector's sendfile if possible,
+     * otherwise copy through positioned channel reads
+     */
+    private void transfer(Path path, Metadata metadata, HttpServletRequest request, HttpServletResponse response,
+                          long position, long count, Stream stream) throws IOException {
+        // Throttled transfer can only be done by copying, the stream only counted needs not
+        // (the cached bytes are written before serve returns, so the stream is held meanwhile)
+        boolean throttled = stream != null && stream.isThrottled();
+        byte[] contents = smallFileCache != null && !throttled ? smallFileCache.get(path, metadata) : null;
+        if (contents != null) {
+            try (OutputStream output = response.getOutputStream()) {
+                output.write(contents, (int) position, (int) count);
+            }
+            return;
+        }
+
+        // The connector will write the file after the request is processed, so the response body
+        // must not be touched here. Since the stream would be released before the file is written,
+        // the counted stream is never handed over to sendfile.
+        if (transferMode != TransferMode.STREAM && stream == null && isSendfileSupported(request, response, count)) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + count);
+            return;
+        }
+        if (transferMode == TransferMode.ASYNC && request.isAsyncSupported()) {
+            transferAsync(path, request, response, position, count, stream);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             OutputStream output = response.getOutputStream()) {
+            copy(channel, output, position, count, stream);
+        }
+    }
+
+    /**
+     * Transfer the file region by non-blocking writes, the request thread is
+     * released immediately and the chunks are pushed only when writable
+     */
+    private void transferAsync(Path path, HttpServletRequest request, HttpServletResponse response,
+                               long position, long count, Stream stream) throws IOException {
+        ServletOutputStream output = response.getOutputStream();
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        AsyncContext context;
+        try {
+            context = request.startAsync(request, response);
+        } catch (RuntimeException e) {
+            close(channel);
+            throw e;
+        }
+
+        // Once async started, the writer owns the channel and the stream
+        AsyncFileWriter writer = new AsyncFileWriter(context, output, channel, stream, position, count);
+        try {
+            context.setTimeout(asyncTimeout);
+            context.addListener(writer);
+            output.setWriteListener(writer);
+        } catch (RuntimeException e) {
+            writer.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Transfer multiple ranges as multipart/byteranges stream,
+     * each part is copied by positioned reads from the same channel
+     */
+    private void transferMultipart(Path path, HttpServletResponse response, String mimeType,
+                                   List<ByteRange> ranges, long total, Stream stream) throws IOException {
+        String boundary = "AUTUMN_BOUNDARY_" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+        byte[][] headers = new byte[ranges.size()][];
+        byte[] trailer = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        // Content length can be computed exactly in advance
+        long length = trailer.length;
+        for (int i = 0; i < headers.length; i++) {
+            ByteRange range = ranges.get(i);
+            String header = "\r\n--" + boundary + "\r\n"
+                + (mimeType != null ? HttpHeaders.CONTENT_TYPE + ": " + mimeType + "\r\n" : "")
+                + HttpHeaders.CONTENT_RANGE + ": " + range.toContentRange(total) + "\r\n\r\n";
+            headers[i] = header.getBytes(StandardCharsets.US_ASCII);
+            length += headers[i].length + range.length();
+        }
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(length);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
              OutputStream output = response.getOutputStream()) {
-            copy(input, output, start);
+            for (int i = 0; i < headers.length; i++) {
+                ByteRange range = ranges.get(i);
+                output.write(headers[i]);
+                copy(channel, output, range.start(), range.length(), stream);
+            }
+            output.write(trailer);
+            output.flush();
+        }
+    }
+
+    /**
+     * Check whether the connector supports sendfile, the wrapped response
+     * (such as content caching or HEAD request) needs the body bytes actually
+     */
+    private boolean isSendfileSupported(HttpServletRequest request, HttpServletResponse response, long count) {
+        return count >= SENDFILE_THRESHOLD
+            && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))
+            && !(response instanceof ServletResponseWrapper);
+    }
+
+    /** Copy file channel to output stream by positioned reads without skipping */
+    public long copy(FileChannel input, OutputStream output, long position, long count) throws IOException {
+        return copy(input, output, position, count, null);
+    }
+
+    /** Copy file channel to output stream, wait for the bandwidth of stream if specified */
+    private long copy(FileChannel input, OutputStream output, long position, long count, Stream stream)
+        throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(count, DEFAULT_BUFFER_SIZE));
+        long copied = 0;
+
+        while (copied < count) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), count - copied));
+            int read = input.read(buffer, position + copied);
+            if (read == -1) break;
+            if (stream != null) stream.acquire(read);
+            output.write(buffer.array(), 0, read);
+            copied += read;
         }
+        output.flush();
+        return copied;
     }
 
     /** Copy input stream to output stream by start */
@@ -112,9 +405,261 @@ public class StaticResourceHandler {
         }
     }
 
-    /** Check last modified or not */
-    private boolean checkNotModified(long lastModified, long ifModifiedSince) {
+    /**
+     * Check not modified or not, If-None-Match takes precedence
+     * over If-Modified-Since when both are present (RFC 7232)
+     */
+    private boolean checkNotModified(HttpServletRequest request, Metadata metadata) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matchesETag(ifNoneMatch, metadata.etag(), true);
+        }
+        long lastModified = metadata.lastModified();
+        long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
         return lastModified > 0 && ifModifiedSince > 0 && ifModifiedSince >= lastModified / 1000 * 1000;
     }
 
+    /** Check the range request is still valid for current representation */
+    private boolean checkIfRange(HttpServletRequest request, Metadata metadata) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) return true;
+
+        // Entity tag must be strong matched, or the date must be exactly matched
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return matchesETag(ifRange, metadata.etag(), false);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == metadata.lastModified() / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /** Match entity tag in the list of header value */
+    private boolean matchesETag(String header, String etag, boolean weak) {
+        for (String tag : header.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) {
+                if (!weak) continue;
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /** Byte Range of Request Header (RFC 7233) */
+    public record ByteRange(long start, long end) {
+
+        private static final Pattern RANGE_SPEC = Pattern.compile("(\\d*)\\s*-\\s*(\\d*)");
+        private static final int MAX_RANGES = 64;
+
+        public long length() {
+            return end - start + 1;
+        }
+
+        public String toContentRange(long total) {
+            return "bytes " + start + '-' + end + '/' + total;
+        }
+
+        /**
+         * Parse range header to the satisfiable ranges which sorted and coalesced.
+         * Return null if the header is absent or should be ignored (unknown unit,
+         * malformed or too many ranges), or empty list if none is satisfiable.
+         */
+        public static List<ByteRange> parse(String header, long total) {
+            if (header == null || !header.regionMatches(true, 0, "bytes=", 0, 6)) return null;
+            String[] specs = header.substring(6).split(",");
+            if (specs.length > MAX_RANGES) return null;
+
+            List<ByteRange> ranges = new ArrayList<>(specs.length);
+            for (String spec : specs) {
+                Matcher matcher = RANGE_SPEC.matcher(spec.trim());
+                if (!matcher.matches()) return null;
+                String first = matcher.group(1), last = matcher.group(2);
+                if (first.isEmpty() && last.isEmpty()) return null;
+
+                long start, end;
+                try {
+                    if (first.isEmpty()) { // Suffix range (the last n bytes)
+                        start = Math.max(total - Long.parseLong(last), 0);
+                        end = total - 1;
+                        if (start > end) continue;
+                    } else {
+                        start = Long.parseLong(first);
+                        end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+                        if (end < start) return null;
+                        end = Math.min(end, total - 1);
+                    }
+                } catch (NumberFormatException e) {
+                    return null; // Out of long range
+                }
+                if (start < total) ranges.add(new ByteRange(start, end));
+            }
+            return coalesce(ranges);
+        }
+
+        /** Merge overlapping or adjacent ranges */
+        private static List<ByteRange> coalesce(List<ByteRange> ranges) {
+            ranges.sort(Comparator.comparingLong(ByteRange::start));
+            List<ByteRange> result = new ArrayList<>(ranges.size());
+            for (ByteRange range : ranges) {
+                int last = result.size() - 1;
+                if (last >= 0 && range.start <= result.get(last).end + 1) {
+                    ByteRange merged = result.get(last);
+                    result.set(last, new ByteRange(merged.start, Math.max(merged.end, range.end)));
+                } else {
+                    result.add(range);
+                }
+            }
+            return result;
+        }
+
+    }
+
+    /** Get the scheduler to resume throttled async transfers, created lazily */
+    private synchronized ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor();
+        }
+        return scheduler;
+    }
+
+    @PreDestroy
+    public synchronized void onDestroy() throws IOException {
+        metadataCache.close();
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    /**
+     * Non-blocking File Writer
+     * Timeouts and client aborts end up in the same path: the file channel
+     * is closed and the async context is completed exactly once.
+     */
+    private class AsyncFileWriter implements WriteListener, AsyncListener {
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final ByteBuffer buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+        private final AsyncContext context;
+        private final ServletOutputStream output;
+        private final FileChannel channel;
+        private final Stream stream;
+        private final long end;
+        private long position;
+
+        private AsyncFileWriter(AsyncContext context, ServletOutputStream output, FileChannel channel,
+                                Stream stream, long position, long count) {
+            this.context = context;
+            this.output = output;
+            this.channel = channel;
+            this.stream = stream;
+            this.position = position;
+            this.end = position + count;
+        }
+
+        /**
+         * Push chunks until the socket is not writable, the container calls back when it is.
+         * If throttled, pause and resume later on the container thread.
+         */
+        @Override
+        public synchronized void onWritePossible() throws IOException {
+            while (!closed.get() && output.isReady()) {
+                if (position >= end) {
+                    close();
+                    return;
+                }
+                buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+                int read = channel.read(buffer, position);
+                if (read == -1) { // Truncated while transferring
+                    close();
+                    return;
+                }
+                position += read;
+                output.write(buffer.array(), 0, read);
+
+                long wait = stream != null ? stream.reserve(read) : 0;
+                if (wait > 0) {
+                    getScheduler().schedule(() -> context.start(this::resume), wait, TimeUnit.NANOSECONDS);
+                    return;
+                }
+            }
+        }
+
+        private void resume() {
+            try {
+                onWritePossible();
+            } catch (IOException | RuntimeException e) {
+                onError(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            // Client abort or socket write timeout
+            if (e instanceof IOException) {
+                log.debug("Async transfer aborted: {}", e.toString());
+            } else {
+                log.error(e.getMessage(), e);
+            }
+            close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            log.debug("Async transfer timed out at position {} of {}.", position, end);
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            onError(event.getThrowable());
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            // Completed by container (such as the connection closed) without going through close
+            closeChannel();
+            if (stream != null) stream.close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) { }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                closeChannel();
+                if (stream != null) stream.close();
+                try {
+                    context.complete();
+                } catch (IllegalStateException e) {
+                    // Already completed by container
+                }
+            }
+        }
+
+        private void closeChannel() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+
+    }
+
+    /** Selected Representation of Resource */
+    private record Representation(Path path, Metadata metadata, String encoding) { }
+
+    /** Transfer Mode of Response Body */
+    public enum TransferMode {
+        /** Always copy through the heap buffer */
+        STREAM,
+        /** Use connector's sendfile if supported, otherwise fallback to STREAM */
+        ZERO_COPY,
+        /** Use connector's sendfile if supported, otherwise stream by non-blocking writes */
+        ASYNC
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,137 @@
+package com.arraywork.autumn.channel;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.Assert;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Batching Publisher of Channel
+ * Coalesces the messages of each channel over a short window and broadcasts
+ * them as a single array frame, so that a burst costs one write per session.
+ * Messages of the same key are conflated within the window, only the latest
+ * one is kept (moved to the position of its last update). The key is the
+ * event name if given, and a null key (such as no event name) is never conflated.
+ * The batch of a channel is removed once it is flushed and idle, so that
+ * per-user or per-entity channels do not accumulate.
+ *
+ * <pre>
+ *   BatchPublisher publisher = new BatchPublisher(channelService, 20, TimeUnit.MILLISECONDS);
+ *   publisher.publish("prices", "tick:" + symbol, quote);
+ * </pre>
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+@Slf4j
+public class BatchPublisher implements Closeable {
+
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    private final ChannelService channelService;
+    private final long windowNanos;
+    private final ScheduledExecutorService scheduler;
+    private volatile boolean closed;
+
+    @Setter // Pending messages of a channel to flush before the window ends
+    private int maxBatchSize = 1000;
+
+    public BatchPublisher(ChannelService channelService, long window, TimeUnit timeUnit) {
+        Assert.isTrue(window > 0, "The window must be positive.");
+        this.channelService = channelService;
+        this.windowNanos = timeUnit.toNanos(window);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "channel-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Publish message conflated by event, a message without event is never conflated */
+    public void publish(String channel, String event, Object data) {
+        ChannelMessage message = new ChannelMessage();
+        message.setEvent(event);
+        message.setData(data);
+        publish(channel, message, event);
+    }
+
+    /** Publish message conflated by the key, a null key is never conflated */
+    public void publish(String channel, ChannelMessage message, Object key) {
+        Assert.notNull(message, "The message is required.");
+        Assert.state(!closed, "The publisher is closed.");
+        // Added under the bin lock, so that it cannot race with removing the idle batch
+        boolean[] flushNow = new boolean[1];
+        Batch batch = batches.compute(channel, (k, value) -> {
+            Batch current = value != null ? value : new Batch(k);
+            synchronized (current) {
+                Object slot = key != null ? key : new Object();
+                current.pending.remove(slot);
+                current.pending.put(slot, message);
+                if (current.pending.size() >= maxBatchSize) {
+                    flushNow[0] = true;
+                } else if (!current.scheduled) {
+                    current.scheduled = true;
+                    scheduler.schedule(() -> flush(current), windowNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+            return current;
+        });
+        if (flushNow[0]) flush(batch);
+    }
+
+    /** Flush all pending messages and stop the scheduler */
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        batches.values().forEach(this::flush);
+    }
+
+    /** Broadcast the pending messages, flushes of a channel are serialized to keep the order */
+    private void flush(Batch batch) {
+        synchronized (batch.flushLock) {
+            List<ChannelMessage> messages;
+            synchronized (batch) {
+                batch.scheduled = false;
+                messages = batch.pending.isEmpty() ? null : new ArrayList<>(batch.pending.values());
+                batch.pending.clear();
+            }
+            if (messages != null) {
+                try {
+                    channelService.broadcastBatch(batch.channel, messages);
+                } catch (RuntimeException e) {
+                    log.error("Channel <{}> failed to flush batch.", batch.channel, e);
+                }
+            }
+            // Remove the batch if nothing is published meanwhile
+            batches.computeIfPresent(batch.channel, (key, value) -> value == batch && batch.isIdle() ? null : value);
+        }
+    }
+
+    /** Pending Messages of Channel */
+    private static class Batch {
+        private final String channel;
+        private final Map<Object, ChannelMessage> pending = new LinkedHashMap<>();
+        private final Object flushLock = new Object();
+        private boolean scheduled; // A flush is scheduled for the current window
+
+        private Batch(String channel) {
+            this.channel = channel;
+        }
+
+        private synchronized boolean isIdle() {
+            return pending.isEmpty() && !scheduled;
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.arraywork.autumn.channel;
+
+import java.io.Closeable;
+import java.util.function.Consumer;
+
+/**
+ * Message Bus of Channels across Nodes
+ * Broadcasts are published to the bus with pre-encoded text, and every node
+ * delivers the messages from others to its local sessions. Implementations
+ * may batch and may deliver duplicates, which are dropped by the receiver.
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+public interface ChannelBus extends Closeable {
+
+    /** Publish the message to other nodes */
+    void publish(Message message);
+
+    /** Listen to the messages from the bus (may include the messages of this node) */
+    void subscribe(Consumer<Message> listener);
+
+    @Override
+    default void close() { }
+
+    /**
+     * Message of Bus
+     *
+     * @param origin   Id of the publishing node
+     * @param sequence Sequence in the publishing node
+     * @param channel  Channel name
+     * @param event    Event for conflation (nullable)
+     * @param text     Encoded text frame
+     */
+    record Message(String origin, long sequence, String channel, String event, String text) { }
+
+}
\ No newline at end of file
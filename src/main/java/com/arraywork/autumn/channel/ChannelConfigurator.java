@@ -0,0 +1,80 @@
+package com.arraywork.autumn.channel;
+
+import java.util.ArrayList;
+import java.util.List;
+import jakarta.websocket.Extension;
+import jakarta.websocket.server.ServerEndpointConfig;
+
+/**
+ * Endpoint Configurator of Channel
+ * Controls the negotiation of permessage-deflate (RFC 7692). Compression
+ * saves bandwidth of large text frames at the cost of CPU, and each
+ * compressed connection keeps its own deflate context unless the server
+ * context takeover is disabled.
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+public class ChannelConfigurator extends ServerEndpointConfig.Configurator {
+
+    private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+
+    private static volatile boolean deflate = true;
+    private static volatile boolean contextTakeover = true;
+
+    /** Enable or disable permessage-deflate if requested by client */
+    public static void setDeflate(boolean enabled) {
+        deflate = enabled;
+    }
+
+    /** Reset the compression context per message, saves memory of idle connections */
+    public static void setContextTakeover(boolean enabled) {
+        contextTakeover = enabled;
+    }
+
+    @Override
+    public List<Extension> getNegotiatedExtensions(List<Extension> installed, List<Extension> requested) {
+        List<Extension> negotiated = new ArrayList<>();
+        for (Extension extension : super.getNegotiatedExtensions(installed, requested)) {
+            if (!PERMESSAGE_DEFLATE.equals(extension.getName())) {
+                negotiated.add(extension);
+            } else if (deflate) {
+                negotiated.add(contextTakeover ? extension : withoutContextTakeover(extension));
+            }
+        }
+        return negotiated;
+    }
+
+    private Extension withoutContextTakeover(Extension extension) {
+        List<Extension.Parameter> parameters = new ArrayList<>(extension.getParameters());
+        if (parameters.stream().noneMatch(p -> SERVER_NO_CONTEXT_TAKEOVER.equals(p.getName()))) {
+            parameters.add(new Parameter(SERVER_NO_CONTEXT_TAKEOVER, null));
+        }
+        return new Extension() {
+            @Override
+            public String getName() {
+                return extension.getName();
+            }
+
+            @Override
+            public List<Parameter> getParameters() {
+                return parameters;
+            }
+        };
+    }
+
+    private record Parameter(String name, String value) implements Extension.Parameter {
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getValue() {
+            return value;
+        }
+    }
+
+}
\ No newline at end of file
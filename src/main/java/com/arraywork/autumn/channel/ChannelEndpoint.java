@@ -1,5 +1,6 @@
 package com.arraywork.autumn.channel;
 
+import java.util.concurrent.atomic.AtomicLong;
 import jakarta.annotation.Resource;
 import jakarta.websocket.CloseReason;
 import jakarta.websocket.OnClose;
@@ -17,18 +18,29 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * Channel Endpoint of WebSocket
+ * The format of frames is negotiated by subprotocol 'json' or 'cbor'
+ * (or query parameter 'format'), JSON text by default. Messages and pongs
+ * are logged at debug level, one out of every sampled count.
  *
  * @author Marco
  * @copyright ArrayWork Inc.
  * @since 2024/07/06
  */
 @RestController
-@ServerEndpoint(value = "/channel/{channel}", encoders = ChannelMessage.Encoder.class)
+@ServerEndpoint(value = "/channel/{channel}", encoders = ChannelMessage.Encoder.class,
+    subprotocols = { "json", "cbor" }, configurator = ChannelConfigurator.class)
 @Slf4j
 public class ChannelEndpoint {
 
+    private static final AtomicLong messageCount = new AtomicLong();
+    private static volatile int logSampling = 100;
     private static ChannelService channelService;
 
+    /** Log one out of every count of messages at debug level (1 logs all) */
+    public static void setLogSampling(int count) {
+        logSampling = Math.max(count, 1);
+    }
+
     @Resource
     public void setChannelService(ChannelService channelService) {
         ChannelEndpoint.channelService = channelService;
@@ -38,19 +50,18 @@ public class ChannelEndpoint {
     public void onOpen(@PathParam("channel") String channel, Session session) {
         log.info("Session <{}> subscribes channel <{}>.", session.getId(), channel);
         channelService.subscribe(channel, session);
-        channelService.ping(session);
     }
 
     @OnMessage(maxMessageSize = 1024000) // 1MB
     public void onMessage(@PathParam("channel") String channel, Session session, String message) {
-        log.info("Session <{}> sent a message: {}", session.getId(), message);
+        if (sampled()) log.debug("Session <{}> sent a message: {}", session.getId(), message);
         channelService.receiveMessage(channel, session, message);
     }
 
     @OnMessage
     public void onPongMessage(Session session, PongMessage message) {
-        log.info("Session <{}> sent a pong message: {}", session.getId(), message.getApplicationData());
-        channelService.ping(session);
+        if (sampled()) log.debug("Session <{}> sent a pong message.", session.getId());
+        channelService.pong(session);
     }
 
     @OnClose
@@ -63,6 +74,11 @@ public class ChannelEndpoint {
     public void onError(@PathParam("channel") String channel, Session session, Throwable e) {
         log.error("Session <{}> has an error on channel <{}>.", session.getId(), channel);
         log.error(e.getMessage(), e);
+        channelService.unsubscribe(channel, session);
+    }
+
+    private boolean sampled() {
+        return log.isDebugEnabled() && messageCount.getAndIncrement() % logSampling == 0;
     }
 
 }
\ No newline at end of file
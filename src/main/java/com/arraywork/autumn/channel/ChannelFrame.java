@@ -0,0 +1,88 @@
+package com.arraywork.autumn.channel;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import jakarta.websocket.Session;
+
+import com.arraywork.autumn.util.JsonUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+
+/**
+ * Encoded Frame of Channel Message
+ * Each format is encoded at most once however many sessions receive it,
+ * the binary frame is shared through read-only views of the same buffer.
+ * Both formats are encoded from the message directly (on demand, so it must
+ * not be modified afterwards), a frame of JSON text is parsed for CBOR.
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+public class ChannelFrame {
+
+    private static final ObjectMapper CBOR_MAPPER = JsonUtils.copyWith(CBORFactory.builder()
+        .enable(CBORGenerator.Feature.WRITE_MINIMAL_DOUBLES) // Doubles fit in float are written in 4 bytes
+        .build());
+
+    private final Object message; // Nullable if created from text
+    private volatile String text;
+    private volatile ByteBuffer binary;
+
+    private ChannelFrame(Object message, String text) {
+        this.message = message;
+        this.text = text;
+    }
+
+    /** Create frame of the message, encoded on demand */
+    public static ChannelFrame of(Object message) {
+        return new ChannelFrame(message, null);
+    }
+
+    /** Create frame of the encoded JSON text */
+    public static ChannelFrame ofText(String text) {
+        return new ChannelFrame(null, text);
+    }
+
+    /** Get the JSON text */
+    public String text() {
+        String text = this.text;
+        if (text == null) this.text = text = ChannelMessage.encode(message);
+        return text;
+    }
+
+    /** Get read-only view of the CBOR bytes */
+    public ByteBuffer binary() {
+        ByteBuffer binary = this.binary;
+        if (binary == null) this.binary = binary = ByteBuffer.wrap(encodeBinary(message)).asReadOnlyBuffer();
+        return binary.duplicate();
+    }
+
+    private byte[] encodeBinary(Object message) {
+        try {
+            Object value = message != null ? message : JsonUtils.parse(text);
+            return CBOR_MAPPER.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /** Encoding Format of Session */
+    public enum Format {
+        JSON, CBOR;
+
+        private static final String FORMAT_PARAMETER = "format";
+
+        /** Negotiate by subprotocol, then by query parameter 'format', JSON by default */
+        public static Format of(Session session) {
+            String format = session.getNegotiatedSubprotocol();
+            if (format == null || format.isEmpty()) {
+                List<String> values = session.getRequestParameterMap().get(FORMAT_PARAMETER);
+                format = values != null && !values.isEmpty() ? values.get(0) : null;
+            }
+            return CBOR.name().equalsIgnoreCase(format) ? CBOR : JSON;
+        }
+    }
+
+}
\ No newline at end of file
@@ -25,6 +25,8 @@ public class ChannelMessage {
 
     private static final String DEFAULT_EVENT = "message";
     @JsonProperty
+    private String id; // Assigned by replay buffer if enabled
+    @JsonProperty
     private String event;
     @JsonProperty
     private Object data;
@@ -42,11 +44,16 @@ public class ChannelMessage {
         return data;
     }
 
+    /** Encode message to text frame */
+    public static String encode(Object message) {
+        return JsonUtils.stringify(message);
+    }
+
     /** Inner Class for Encoding Channel Message */
     public static class Encoder implements jakarta.websocket.Encoder.Text<Object> {
         @Override
         public String encode(Object message) {
-            return JsonUtils.stringify(message);
+            return ChannelMessage.encode(message);
         }
     }
 
@@ -0,0 +1,103 @@
+package com.arraywork.autumn.channel;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Subscription Registry of Channels
+ * Adding and removing are O(1) under the bin lock of the channel only, so
+ * that churn on one channel never blocks others. Broadcasts iterate without
+ * any lock (weakly consistent), and empty channels are removed atomically.
+ * A reverse index of the channels of each session is maintained alongside,
+ * and the counts are read from the counters of concurrent sets in O(1).
+ * The session is a WebSocket session or an SSE emitter.
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+public class ChannelRegistry<S> {
+
+    private final Map<String, Set<S>> channels = new ConcurrentHashMap<>();
+    private final Map<S, Set<String>> memberships = new ConcurrentHashMap<>();
+
+    /** Add the session to channel, return true if the channel is created */
+    public boolean add(String channel, S session) {
+        return add(channel, session, null);
+    }
+
+    /** Add the session to channel and run the action (nullable) under the same lock */
+    public boolean add(String channel, S session, Runnable action) {
+        boolean[] created = new boolean[1];
+        channels.compute(channel, (key, sessions) -> {
+            if (sessions == null) {
+                sessions = ConcurrentHashMap.newKeySet();
+                created[0] = true;
+            }
+            sessions.add(session);
+            memberships.compute(session, (k, names) -> {
+                if (names == null) names = ConcurrentHashMap.newKeySet();
+                names.add(channel);
+                return names;
+            });
+            if (action != null) action.run();
+            return sessions;
+        });
+        return created[0];
+    }
+
+    /** Remove the session from channel, return true if the channel becomes empty and removed */
+    public boolean remove(String channel, S session) {
+        return remove(channel, session, null);
+    }
+
+    /**
+     * Remove the session from channel and run the action (nullable) under the same lock
+     * if the channel becomes empty, so that it cannot race with adding to the channel
+     */
+    public boolean remove(String channel, S session, Runnable whenEmptied) {
+        boolean[] emptied = new boolean[1];
+        channels.computeIfPresent(channel, (key, sessions) -> {
+            sessions.remove(session);
+            memberships.computeIfPresent(session, (k, names) -> {
+                names.remove(channel);
+                return names.isEmpty() ? null : names;
+            });
+            emptied[0] = sessions.isEmpty();
+            if (emptied[0] && whenEmptied != null) whenEmptied.run();
+            return emptied[0] ? null : sessions;
+        });
+        return emptied[0];
+    }
+
+    /** Get the live view of sessions subscribed the channel */
+    public Set<S> getSessions(String channel) {
+        Set<S> sessions = channels.get(channel);
+        return sessions != null ? Collections.unmodifiableSet(sessions) : Collections.emptySet();
+    }
+
+    /** Get names of the channels which have sessions */
+    public Set<String> getChannels() {
+        return Collections.unmodifiableSet(channels.keySet());
+    }
+
+    /** Get the live view of channels subscribed by the session */
+    public Set<String> getChannels(S session) {
+        Set<String> names = memberships.get(session);
+        return names != null ? Collections.unmodifiableSet(names) : Collections.emptySet();
+    }
+
+    /** Get count of sessions subscribed the channel */
+    public int getSessionCount(String channel) {
+        Set<S> sessions = channels.get(channel);
+        return sessions != null ? sessions.size() : 0;
+    }
+
+    /** Get count of distinct sessions in all channels */
+    public int getSessionCount() {
+        return memberships.size();
+    }
+
+}
\ No newline at end of file
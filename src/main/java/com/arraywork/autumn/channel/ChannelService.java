@@ -1,20 +1,50 @@
 package com.arraywork.autumn.channel;
 
-import java.nio.ByteBuffer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import jakarta.annotation.PreDestroy;
+import jakarta.websocket.CloseReason;
 import jakarta.websocket.Session;
 
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
+import com.arraywork.autumn.channel.OutboundQueue.OverflowPolicy;
+import com.arraywork.autumn.external.NanoId;
+import com.arraywork.autumn.helper.SerialExecutor;
+import com.arraywork.autumn.helper.TimerWheel;
+import com.arraywork.autumn.util.JsonUtils;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Channel Service of WebSocket
+ * Bound to a meter registry, the counts of sessions and channels are published,
+ * with the subscribers of each channel if enabled (capped to bound the cardinality).
  *
  * @author Marco
  * @copyright ArrayWork Inc.
@@ -22,14 +52,75 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Service
 @Slf4j
-public class ChannelService {
+public class ChannelService implements MeterBinder {
 
-    private static final Map<String, Set<Session>> channels = new ConcurrentHashMap<>();
     private static final long TIMEOUT = 60_000; // 1 minute
+    // Session property of tomcat to bound the blocking writes (ping and close frames) in milliseconds
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+    private static final long PING_TIMEOUT = 5000;
+    private static final String QUEUE_KEY = OutboundQueue.class.getName();
+    private static final String HEARTBEAT_KEY = Heartbeat.class.getName();
+    private static final String CALLBACK_KEY = SerialExecutor.class.getName();
+    private static final int BROADCAST_SHARD_SIZE = 512;
+    private static final int MAX_SEEN_MESSAGES = 16_384;
+    private static final String LAST_EVENT_ID = "lastEventId"; // Query parameter to resume from
+    private static final String RESYNC_EVENT = "resync"; // The missed messages cannot be replayed
+    private static final long PRUNE_INTERVAL = 60_000; // 1 minute
+    private static final String SUBSCRIBERS_METER = "channel.subscribers";
+
+    private final ChannelRegistry<Session> registry = new ChannelRegistry<>();
+    private final Map<String, LongAdder> drops = new ConcurrentHashMap<>();
+    private final Map<String, ReplayBuffer<ChannelFrame>> replays = new ConcurrentHashMap<>();
+    private final Map<String, Meter> channelMeters = new ConcurrentHashMap<>();
+    private final TimerWheel heartbeatWheel = new TimerWheel("channel-heartbeat", 1, TimeUnit.SECONDS);
+    private final Queue<Heartbeat> dueHeartbeats = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean pinging = new AtomicBoolean();
+    private final String nodeId = NanoId.randomNanoId();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Boolean> seenMessages = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_SEEN_MESSAGES;
+        }
+    });
+    private final ExecutorService heartbeatExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "channel-ping");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Setter // Max queued messages of each session
+    private int queueCapacity = 1024;
+    @Setter // What to drop when the queue of slow session is full
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    @Setter // Milliseconds between pings, in advance of the idle timeout
+    private long heartbeatInterval = TIMEOUT - 5000;
+    @Setter // Unanswered pings before the session is considered dead
+    private int maxMissedPongs = 2;
+    @Setter // Executor of async broadcast shards
+    private Executor broadcastExecutor = ForkJoinPool.commonPool();
+    @Setter // Recent messages retained per channel for resuming (zero means disabled)
+    private int replayCapacity;
+    @Setter // Milliseconds to retain the replay buffer of channel after the last message
+    private long replayTtl = 600_000;
+    @Setter // Executor of open and message callbacks, per-session order is kept (null means the container thread)
+    private Executor callbackExecutor;
+    @Setter // Pending callbacks of each session, beyond which the reader thread blocks
+    private int maxPendingCallbacks = 256;
+    @Setter // Publish the subscribers gauge of each channel, beware of cardinality if channels are per user
+    private boolean channelMetrics = false;
+    @Setter // Max channels with the subscribers gauge, the channels beyond are not published
+    private int maxChannelMeters = 100;
 
+    private ChannelBus channelBus;
+    private volatile MeterRegistry meterRegistry;
     private OnOpenCallback onOpenCallback;
     private OnMessageCallback onMessageCallback;
 
+    public ChannelService() {
+        schedulePrune();
+    }
+
     public void onOpen(OnOpenCallback callback) {
         this.onOpenCallback = callback;
     }
@@ -38,25 +129,43 @@ public class ChannelService {
         this.onMessageCallback = callback;
     }
 
+    /** Set the bus to broadcast across nodes */
+    public void setChannelBus(ChannelBus bus) {
+        this.channelBus = bus;
+        bus.subscribe(this::receiveBusMessage);
+    }
+
     /** Subscribe channel */
     public void subscribe(String channel, Session session) {
         session.setMaxIdleTimeout(TIMEOUT);
-        getChannel(channel).add(session);
+        session.getUserProperties().putIfAbsent(BLOCKING_SEND_TIMEOUT, PING_TIMEOUT);
+        session.getUserProperties().put(QUEUE_KEY, createQueue(channel, session));
+        startHeartbeat(channel, session);
+        replayAndAdd(channel, session);
 
-        if (onOpenCallback != null) {
-            onOpenCallback.handle(channel, session);
+        OnOpenCallback callback = onOpenCallback;
+        if (callback != null) {
+            dispatch(session, () -> callback.handle(channel, session));
         }
     }
 
     /** Unsubscribe channel */
     public void unsubscribe(String channel, Session session) {
-        getChannel(channel).remove(session);
+        // The counter is removed under the lock of registry, so that a concurrent subscriber keeps it
+        if (registry.remove(channel, session, () -> drops.remove(channel))) {
+            syncChannelMeter(channel);
+        }
+        OutboundQueue queue = (OutboundQueue) session.getUserProperties().remove(QUEUE_KEY);
+        if (queue != null) queue.close();
+        Heartbeat heartbeat = (Heartbeat) session.getUserProperties().remove(HEARTBEAT_KEY);
+        if (heartbeat != null) heartbeat.stop();
     }
 
     /** Receive message and callback */
     public void receiveMessage(String channel, Session session, String message) {
-        if (onMessageCallback != null) {
-            onMessageCallback.handle(channel, session, message);
+        OnMessageCallback callback = onMessageCallback;
+        if (callback != null) {
+            dispatch(session, () -> callback.handle(channel, session, message));
         }
     }
 
@@ -68,12 +177,76 @@ public class ChannelService {
     /** Broadcast message to all sessions subscribed the channel */
     public int broadcast(String channel, String event, Object data) {
         Assert.notNull(data, "The field 'data' is required.");
-        int result = 0;
-        for (Session session : getChannel(channel)) {
-            sendMessage(session, event, data);
-            result++;
-        }
-        return result;
+        ChannelMessage message = new ChannelMessage();
+        message.setEvent(event);
+        message.setData(data);
+        return broadcast(channel, message);
+    }
+
+    /**
+     * Broadcast message to all sessions subscribed the channel, the message is encoded
+     * at most once per format (lazily, so it must not be modified after broadcast)
+     */
+    public int broadcast(String channel, ChannelMessage message) {
+        Set<Session> sessions = registry.getSessions(channel);
+        if (sessions.isEmpty() && channelBus == null && replayCapacity <= 0) return 0;
+
+        ChannelFrame frame = encode(channel, message);
+        String event = message.event();
+        publish(channel, event, frame);
+        return sendAll(sessions, event, frame);
+    }
+
+    /**
+     * Broadcast messages as a single array frame. If replay is enabled, each message
+     * is retained individually, so a resuming client receives them one by one.
+     */
+    public int broadcastBatch(String channel, List<ChannelMessage> messages) {
+        Assert.notEmpty(messages, "The messages are required.");
+        Set<Session> sessions = registry.getSessions(channel);
+        if (sessions.isEmpty() && channelBus == null && replayCapacity <= 0) return 0;
+
+        ChannelFrame frame = encodeBatch(channel, messages);
+        publish(channel, null, frame);
+        return sendAll(sessions, null, frame);
+    }
+
+    /** Broadcast message asynchronously with default event */
+    public CompletableFuture<BroadcastResult> broadcastAsync(String channel, Object data) {
+        return broadcastAsync(channel, null, data);
+    }
+
+    /** Broadcast message asynchronously */
+    public CompletableFuture<BroadcastResult> broadcastAsync(String channel, String event, Object data) {
+        Assert.notNull(data, "The field 'data' is required.");
+        ChannelMessage message = new ChannelMessage();
+        message.setEvent(event);
+        message.setData(data);
+        return broadcastAsync(channel, message);
+    }
+
+    /**
+     * Broadcast message asynchronously, the sessions are split into shards which are
+     * dispatched in parallel on the broadcast executor. The message is encoded only once.
+     */
+    public CompletableFuture<BroadcastResult> broadcastAsync(String channel, ChannelMessage message) {
+        Executor executor = broadcastExecutor;
+        return CompletableFuture.supplyAsync(() -> {
+            Session[] sessions = registry.getSessions(channel).toArray(Session[]::new);
+            ChannelFrame frame = encode(channel, message);
+            String event = message.event();
+            publish(channel, event, frame);
+
+            List<CompletableFuture<BroadcastResult>> shards = new ArrayList<>();
+            for (int from = 0; from < sessions.length; from += BROADCAST_SHARD_SIZE) {
+                int start = from;
+                int end = Math.min(from + BROADCAST_SHARD_SIZE, sessions.length);
+                shards.add(CompletableFuture.supplyAsync(() -> sendShard(sessions, start, end, event, frame), executor));
+            }
+            return shards;
+        }, executor).thenCompose(shards -> CompletableFuture.allOf(shards.toArray(CompletableFuture[]::new))
+            .thenApply(v -> shards.stream().map(CompletableFuture::join)
+                .reduce(new BroadcastResult(0, 0), BroadcastResult::plus)));
     }
 
     /** Send message to single specified session with data */
@@ -93,28 +266,327 @@ public class ChannelService {
 
     /** Send message to single specified session with message */
     public void sendMessage(Session session, ChannelMessage message) {
-        if (session.isOpen()) session.getAsyncRemote().sendObject(message);
+        send(session, message.event(), ChannelFrame.of(message));
+    }
+
+    /** Send pre-encoded JSON text to single specified session */
+    public void sendText(Session session, String text) {
+        send(session, null, ChannelFrame.ofText(text));
+    }
+
+    /** Get the outbound queue statistics of the channel */
+    public QueueStats getQueueStats(String channel) {
+        int sessions = 0;
+        long depth = 0;
+        int maxDepth = 0;
+        for (Session session : registry.getSessions(channel)) {
+            if (session.getUserProperties().get(QUEUE_KEY) instanceof OutboundQueue queue) {
+                int size = queue.size();
+                depth += size;
+                maxDepth = Math.max(maxDepth, size);
+            }
+            sessions++;
+        }
+        LongAdder dropped = drops.get(channel);
+        return new QueueStats(sessions, depth, maxDepth, dropped != null ? dropped.sum() : 0);
+    }
+
+    /** Get count of sessions subscribed the channel */
+    public int getSubscriberCount(String channel) {
+        return registry.getSessionCount(channel);
     }
 
-    /** Heartbeat ping-pong */
-    @Async
+    /** Get count of distinct sessions in all channels */
+    public int getSessionCount() {
+        return registry.getSessionCount();
+    }
+
+    /** Get names of the channels which have sessions */
+    public Set<String> getChannels() {
+        return registry.getChannels();
+    }
+
+    /** Get names of the channels subscribed by the session */
+    public Set<String> getChannels(Session session) {
+        return registry.getChannels(session);
+    }
+
+    /** Publish the gauges of existing channels and the channels created later */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("channel.sessions", this, ChannelService::getSessionCount)
+            .description("Distinct sessions subscribed any channel").register(registry);
+        Gauge.builder("channel.channels", this, service -> service.getChannels().size())
+            .description("Channels which have sessions").register(registry);
+        this.meterRegistry = registry;
+        getChannels().forEach(this::syncChannelMeter);
+    }
+
+    /** Send a ping ahead of the queued messages, it waits for the write in flight without blocking */
     public void ping(Session session) {
+        if (session.isOpen()) getQueue(session).ping();
+    }
+
+    /** Receive pong of the heartbeat */
+    public void pong(Session session) {
+        if (session.getUserProperties().get(HEARTBEAT_KEY) instanceof Heartbeat heartbeat) {
+            heartbeat.missed = 0;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (channelBus != null) channelBus.close();
+        heartbeatWheel.close();
+        heartbeatExecutor.shutdownNow();
+    }
+
+    /** Run the callback on the callback executor in order of session, or inline if not set */
+    private void dispatch(Session session, Runnable callback) {
+        Executor executor = callbackExecutor;
+        if (executor == null) {
+            callback.run();
+            return;
+        }
+        ((SerialExecutor) session.getUserProperties()
+            .computeIfAbsent(CALLBACK_KEY, k -> new SerialExecutor(executor, maxPendingCallbacks))).execute(callback);
+    }
+
+    /** Register or remove the gauge by whether the channel exists, the last caller sees the final state */
+    private void syncChannelMeter(String channel) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null || !channelMetrics) return;
+        synchronized (channelMeters) {
+            boolean exists = this.registry.getSessionCount(channel) > 0;
+            Meter meter = channelMeters.get(channel);
+            if (exists && meter == null && channelMeters.size() < maxChannelMeters) {
+                channelMeters.put(channel, Gauge.builder(SUBSCRIBERS_METER, this, s -> s.getSubscriberCount(channel))
+                    .tag("channel", channel)
+                    .description("Sessions subscribed the channel")
+                    .register(registry));
+            } else if (!exists && meter != null) {
+                registry.remove(channelMeters.remove(channel));
+            }
+        }
+    }
+
+    private void startHeartbeat(String channel, Session session) {
+        Heartbeat heartbeat = new Heartbeat(channel, session);
+        Object previous = session.getUserProperties().put(HEARTBEAT_KEY, heartbeat);
+        if (previous instanceof Heartbeat expired) expired.stop();
+        scheduleHeartbeat(heartbeat);
+    }
+
+    /** The wheel only collects the due heartbeats, which are pinged in batch off the ticking thread */
+    private void scheduleHeartbeat(Heartbeat heartbeat) {
+        heartbeat.timeout = heartbeatWheel.schedule(() -> {
+            dueHeartbeats.offer(heartbeat);
+            if (pinging.compareAndSet(false, true)) heartbeatExecutor.execute(this::pingDue);
+        }, heartbeatInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ping the due sessions, evict the sessions which missed too many pongs.
+     * Pings are queued behind the write in flight, so a stalled client cannot
+     * delay the others (at worst a ping is bounded by the blocking send timeout).
+     */
+    private void pingDue() {
+        do {
+            Heartbeat heartbeat;
+            while ((heartbeat = dueHeartbeats.poll()) != null) {
+                if (heartbeat.stopped) continue;
+                Session session = heartbeat.session;
+                if (!session.isOpen() || heartbeat.missed >= maxMissedPongs) {
+                    log.info("Session <{}> is dead on channel <{}>.", session.getId(), heartbeat.channel);
+                    unsubscribe(heartbeat.channel, session);
+                    CompletableFuture.runAsync(() -> close(session)); // The dead peer may stall the close frame
+                    continue;
+                }
+                heartbeat.missed++;
+                ping(session);
+                scheduleHeartbeat(heartbeat);
+            }
+            pinging.set(false);
+        } while (!dueHeartbeats.isEmpty() && pinging.compareAndSet(false, true));
+    }
+
+    private void close(Session session) {
         try {
-            Thread.sleep(TIMEOUT - 5000); // 5 seconds in advance
-            if (session.isOpen()) session.getAsyncRemote().sendPing(ByteBuffer.wrap(new byte[0]));
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
+            if (session.isOpen()) {
+                session.close(new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "Heartbeat timeout"));
+            }
+        } catch (IOException e) {
+            log.debug("Session <{}> failed to close.", session.getId(), e);
         }
     }
 
+    /** Prune the idle replay buffers periodically off the ticking thread */
+    private void schedulePrune() {
+        heartbeatWheel.schedule(() -> heartbeatExecutor.execute(() -> {
+            long ttl = replayTtl;
+            for (String channel : replays.keySet()) {
+                replays.computeIfPresent(channel, (key, replay) -> replay.isIdle(ttl) ? null : replay);
+            }
+            schedulePrune();
+        }), PRUNE_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /** Encode the message, with the id of replay buffer if enabled */
+    private ChannelFrame encode(String channel, ChannelMessage message) {
+        if (replayCapacity <= 0) return ChannelFrame.of(message);
+        ReplayBuffer<ChannelFrame> replay = replays.computeIfAbsent(channel, k -> new ReplayBuffer<>(replayCapacity));
+        return replay.append(message.event(), id -> {
+            message.setId(id);
+            return ChannelFrame.of(message);
+        }).message();
+    }
+
+    /** Encode the messages as an array, each with the id of replay buffer if enabled */
+    private ChannelFrame encodeBatch(String channel, List<ChannelMessage> messages) {
+        if (replayCapacity > 0) messages.forEach(message -> encode(channel, message));
+        return ChannelFrame.of(messages);
+    }
+
     /**
-     * Get session set from specified channel
-     * The keyword 'synchronized' is necessary
+     * Replay the missed messages after the id in query parameter, and add the session
+     * to channel atomically with appends, so that live messages come after the replayed.
+     * If the id is unknown (issued by another node or process, or overwritten), a resync
+     * message with the current last id is sent instead, the client should reload its state.
      */
-    private synchronized Set<Session> getChannel(String channel) {
-        return channels.computeIfAbsent(channel, k -> new CopyOnWriteArraySet<>());
+    private void replayAndAdd(String channel, Session session) {
+        List<String> values = session.getRequestParameterMap().get(LAST_EVENT_ID);
+        if (values == null || values.isEmpty() || replayCapacity <= 0) {
+            add(channel, session);
+            return;
+        }
+        ReplayBuffer<ChannelFrame> replay = replays.computeIfAbsent(channel, k -> new ReplayBuffer<>(replayCapacity));
+        replay.replay(values.get(0), result -> {
+            if (result.resync()) {
+                log.debug("Session <{}> resyncs from unknown {}: {}", session.getId(), LAST_EVENT_ID, values.get(0));
+                ChannelMessage resync = new ChannelMessage();
+                resync.setId(result.lastId());
+                resync.setEvent(RESYNC_EVENT);
+                send(session, RESYNC_EVENT, ChannelFrame.of(resync));
+            }
+            for (ReplayBuffer.Entry<ChannelFrame> entry : result.entries()) {
+                send(session, entry.event(), entry.message());
+            }
+            add(channel, session);
+        });
+    }
+
+    private void add(String channel, Session session) {
+        if (registry.add(channel, session, () -> drops.computeIfAbsent(channel, k -> new LongAdder()))) {
+            syncChannelMeter(channel);
+        }
+    }
+
+    /** Publish to other nodes if the bus is set */
+    private void publish(String channel, String event, ChannelFrame frame) {
+        ChannelBus bus = channelBus;
+        if (bus != null) {
+            bus.publish(new ChannelBus.Message(nodeId, sequence.incrementAndGet(), channel, event, frame.text()));
+        }
+    }
+
+    /** Deliver the message of other nodes to local sessions, duplicates are dropped */
+    private void receiveBusMessage(ChannelBus.Message message) {
+        if (nodeId.equals(message.origin())) return;
+        if (seenMessages.putIfAbsent(message.origin() + ":" + message.sequence(), true) != null) return;
+        String channel = message.channel();
+        Set<Session> sessions = registry.getSessions(channel);
+        if (replayCapacity <= 0) {
+            // Arrived as JSON, the CBOR frame is parsed from it once if any session needs it
+            sendAll(sessions, message.event(), ChannelFrame.ofText(message.text()));
+            return;
+        }
+
+        // Retained with the ids of this node, so that the clients of this node see ids of one epoch
+        if (message.event() == null) {
+            // A batch is published without event
+            List<ChannelMessage> messages = JsonUtils.parse(message.text(), new TypeReference<>() { });
+            sendAll(sessions, null, encodeBatch(channel, messages));
+        } else {
+            ChannelMessage parsed = JsonUtils.parse(message.text(), ChannelMessage.class);
+            sendAll(sessions, parsed.event(), encode(channel, parsed));
+        }
     }
 
+    private int sendAll(Set<Session> sessions, String event, ChannelFrame frame) {
+        int result = 0;
+        for (Session session : sessions) {
+            if (send(session, event, frame)) result++;
+        }
+        return result;
+    }
+
+    private BroadcastResult sendShard(Session[] sessions, int start, int end, String event, ChannelFrame frame) {
+        int delivered = 0;
+        int failed = 0;
+        for (int i = start; i < end; i++) {
+            try {
+                if (send(sessions[i], event, frame)) delivered++;
+                else failed++;
+            } catch (RuntimeException e) {
+                log.debug("Session <{}> failed to send message.", sessions[i].getId(), e);
+                failed++;
+            }
+        }
+        return new BroadcastResult(delivered, failed);
+    }
+
+    /** Enqueue the frame to session, return false if it is dropped */
+    private boolean send(Session session, String event, ChannelFrame frame) {
+        if (!session.isOpen()) return false;
+        return getQueue(session).offer(event, frame);
+    }
+
+    private OutboundQueue getQueue(Session session) {
+        OutboundQueue queue = (OutboundQueue) session.getUserProperties().get(QUEUE_KEY);
+        if (queue == null) {
+            // The session is not subscribed through this service
+            queue = (OutboundQueue) session.getUserProperties()
+                .computeIfAbsent(QUEUE_KEY, k -> createQueue(null, session));
+        }
+        return queue;
+    }
+
+    private OutboundQueue createQueue(String channel, Session session) {
+        // Drops are counted while the session is subscribed, the counter lives as long as the channel
+        Supplier<LongAdder> counter = channel != null ? () -> drops.get(channel) : () -> null;
+        return new OutboundQueue(session, queueCapacity, overflowPolicy, counter);
+    }
+
+    /** Heartbeat State of Session */
+    private static class Heartbeat {
+        private final String channel;
+        private final Session session;
+        private volatile int missed; // Pings without pong
+        private volatile boolean stopped;
+        private volatile TimerWheel.Timeout timeout;
+
+        private Heartbeat(String channel, Session session) {
+            this.channel = channel;
+            this.session = session;
+        }
+
+        private void stop() {
+            stopped = true;
+            TimerWheel.Timeout timeout = this.timeout;
+            if (timeout != null) timeout.cancel();
+        }
+    }
+
+    /** Result of Async Broadcast (delivered means enqueued to the session) */
+    public record BroadcastResult(int delivered, int failed) {
+        private BroadcastResult plus(BroadcastResult other) {
+            return new BroadcastResult(delivered + other.delivered, failed + other.failed);
+        }
+    }
+
+    /** Outbound Queue Statistics of Channel */
+    public record QueueStats(int sessions, long depth, int maxDepth, long drops) { }
+
     @FunctionalInterface
     public interface OnOpenCallback {
         void handle(String channel, Session session);
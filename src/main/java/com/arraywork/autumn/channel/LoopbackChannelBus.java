@@ -0,0 +1,38 @@
+package com.arraywork.autumn.channel;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-Process Loopback Bus
+ * Connects the channel services within one JVM as if they were nodes,
+ * each service should subscribe the same instance. For tests and single
+ * node deployments.
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+public class LoopbackChannelBus implements ChannelBus {
+
+    private final List<Consumer<Message>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(Message message) {
+        for (Consumer<Message> listener : listeners) {
+            listener.accept(message);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Message> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        listeners.clear();
+    }
+
+}
\ No newline at end of file
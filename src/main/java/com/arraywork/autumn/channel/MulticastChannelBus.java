@@ -0,0 +1,246 @@
+package com.arraywork.autumn.channel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.StandardSocketOptions;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * UDP Multicast Bus
+ * Messages are batched into datagrams by a single sender which drains all
+ * pending messages at once, so no latency is added when idle and the packet
+ * rate stays low under load. Multicast loopback is enabled so that several
+ * nodes can run on one machine. Delivery is best effort (no retransmission),
+ * and a message larger than a datagram is dropped.
+ * Any host which can reach the group can inject messages, so either use a
+ * group isolated to the trusted nodes (the default TTL 1 keeps datagrams in
+ * the local subnet), or set a shared secret to sign each datagram with HMAC,
+ * then unsigned or forged datagrams are dropped. The messages are signed but
+ * not encrypted. Malformed datagrams are dropped as a whole.
+ *
+ * <pre>
+ *   channelService.setChannelBus(new MulticastChannelBus("239.1.2.3", 45678, secret));
+ * </pre>
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+@Slf4j
+public class MulticastChannelBus implements ChannelBus {
+
+    private static final int MAX_DATAGRAM_SIZE = 65_507;
+    private static final int MAX_PENDING = 10_000;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_SIZE = 32;
+
+    private final List<Consumer<Message>> listeners = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<Message> pending = new LinkedBlockingQueue<>(MAX_PENDING);
+    private final InetSocketAddress group;
+    private final MulticastSocket socket;
+    private final SecretKeySpec secret; // Null if datagrams are not signed
+    private final int capacity; // Max bytes of records in a datagram
+    private final Thread sender;
+    private final Thread receiver;
+    private volatile boolean closed;
+
+    /** Unsigned, the group must be isolated to the trusted nodes */
+    public MulticastChannelBus(String group, int port) throws IOException {
+        this(group, port, null);
+    }
+
+    /** Signed with the secret shared by all nodes (nullable) */
+    public MulticastChannelBus(String group, int port, byte[] secret) throws IOException {
+        this.secret = secret != null ? new SecretKeySpec(secret, MAC_ALGORITHM) : null;
+        this.capacity = MAX_DATAGRAM_SIZE - (secret != null ? MAC_SIZE : 0);
+        if (secret != null) createMac(); // Fail fast on invalid secret
+        this.group = new InetSocketAddress(InetAddress.getByName(group), port);
+        socket = new MulticastSocket(port);
+        socket.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+        socket.joinGroup(this.group, null);
+
+        sender = new Thread(this::send, "channel-bus-sender");
+        sender.setDaemon(true);
+        sender.start();
+        receiver = new Thread(this::receive, "channel-bus-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    @Override
+    public void publish(Message message) {
+        if (!pending.offer(message)) {
+            log.warn("Channel bus is overloaded, message dropped: {}", message.channel());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Message> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        sender.interrupt();
+        socket.close();
+    }
+
+    /** Drain the pending messages into as few datagrams as possible */
+    private void send() {
+        List<Message> batch = new ArrayList<>();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(MAX_DATAGRAM_SIZE);
+        Mac mac = createMac();
+        while (!closed) {
+            try {
+                batch.add(pending.take());
+                pending.drainTo(batch);
+
+                List<byte[]> records = new ArrayList<>();
+                int size = Integer.BYTES;
+                for (Message message : batch) {
+                    byte[] record = encode(message);
+                    if (Integer.BYTES + record.length > capacity) {
+                        log.warn("Channel bus message is too large, dropped: {}", message.channel());
+                        continue;
+                    }
+                    if (size + record.length > capacity) {
+                        flush(buffer, records, mac);
+                        size = Integer.BYTES;
+                    }
+                    records.add(record);
+                    size += record.length;
+                }
+                flush(buffer, records, mac);
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                if (!closed) log.error("Channel bus failed to send.", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(ByteArrayOutputStream buffer, List<byte[]> records, Mac mac) throws IOException {
+        if (records.isEmpty()) return;
+        buffer.reset();
+        DataOutputStream output = new DataOutputStream(buffer);
+        output.writeInt(records.size());
+        for (byte[] record : records) output.write(record);
+        if (mac != null) output.write(mac.doFinal(buffer.toByteArray()));
+        socket.send(new DatagramPacket(buffer.toByteArray(), buffer.size(), group));
+        records.clear();
+    }
+
+    private void receive() {
+        byte[] bytes = new byte[MAX_DATAGRAM_SIZE];
+        DatagramPacket packet = new DatagramPacket(bytes, bytes.length);
+        Mac mac = createMac();
+        while (!closed) {
+            try {
+                packet.setLength(bytes.length);
+                socket.receive(packet);
+            } catch (IOException e) {
+                if (!closed) log.error("Channel bus failed to receive.", e);
+                continue;
+            }
+            // Decode the whole datagram before delivering, so that a malformed one is dropped entirely
+            List<Message> messages;
+            try {
+                messages = decode(bytes, packet.getLength(), mac);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Channel bus dropped datagram from {}: {}", packet.getAddress(), e.getMessage());
+                continue;
+            }
+            for (Message message : messages) {
+                for (Consumer<Message> listener : listeners) {
+                    try {
+                        listener.accept(message);
+                    } catch (RuntimeException e) {
+                        log.error(e.getMessage(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Verify the signature if required and decode the records of datagram */
+    private List<Message> decode(byte[] bytes, int length, Mac mac) throws IOException {
+        if (mac != null) {
+            length -= MAC_SIZE;
+            if (length < 0) throw new IOException("Unsigned datagram");
+            mac.update(bytes, 0, length);
+            byte[] signature = new byte[MAC_SIZE];
+            System.arraycopy(bytes, length, signature, 0, MAC_SIZE);
+            if (!MessageDigest.isEqual(mac.doFinal(), signature)) throw new IOException("Invalid signature");
+        }
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes, 0, length));
+        int count = input.readInt();
+        // Each record takes at least 17 bytes, a larger count is forged
+        if (count < 0 || count > length / 16) throw new IOException("Invalid record count: " + count);
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(decode(input));
+        }
+        return messages;
+    }
+
+    /** Create MAC of the secret, null if not signed (not thread-safe, one per thread) */
+    private Mac createMac() {
+        if (secret == null) return null;
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(secret);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private byte[] encode(Message message) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(buffer);
+        output.writeUTF(message.origin());
+        output.writeLong(message.sequence());
+        output.writeUTF(message.channel());
+        output.writeBoolean(message.event() != null);
+        if (message.event() != null) output.writeUTF(message.event());
+        byte[] text = message.text().getBytes(StandardCharsets.UTF_8);
+        output.writeInt(text.length);
+        output.write(text);
+        return buffer.toByteArray();
+    }
+
+    private Message decode(DataInputStream input) throws IOException {
+        String origin = input.readUTF();
+        long sequence = input.readLong();
+        String channel = input.readUTF();
+        String event = input.readBoolean() ? input.readUTF() : null;
+        int length = input.readInt();
+        if (length < 0 || length > input.available()) throw new IOException("Invalid text length: " + length);
+        byte[] text = new byte[length];
+        input.readFully(text);
+        return new Message(origin, sequence, channel, event, new String(text, StandardCharsets.UTF_8));
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,216 @@
+package com.arraywork.autumn.channel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Outbound Queue of WebSocket Session
+ * Bounded queue with a single in-flight write, so that a slow client can
+ * neither make the container buffer without limit nor overlap async writes.
+ * When the queue is full, the overflow policy decides which message is lost.
+ * Pings go through the queue as well, written ahead of the queued messages
+ * but never while a write is in flight, so that the pinging thread is not
+ * blocked by a stalled client (a ping behind a stalled write is never sent,
+ * and the missing pong reveals it).
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+@Slf4j
+public class OutboundQueue {
+
+    private final Deque<Outbound> queue = new ArrayDeque<>();
+    private final Session session;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final ChannelFrame.Format format;
+    private final Supplier<LongAdder> drops; // Counter shared by the sessions of channel, resolved on each drop
+    private boolean writing; // A message is in flight
+    private boolean pingPending; // At most one ping waits
+    private boolean inline, completedInline; // Avoid recursion if the write completes on the calling thread
+    private boolean closed;
+
+    /** The counter of drops (nullable) is resolved on each drop, so that it follows the channel */
+    public OutboundQueue(Session session, int capacity, OverflowPolicy policy, Supplier<LongAdder> drops) {
+        this.session = session;
+        this.format = ChannelFrame.Format.of(session);
+        this.capacity = capacity;
+        this.policy = policy;
+        this.drops = drops;
+    }
+
+    /** Enqueue the frame, return false if it is dropped */
+    public boolean offer(String event, ChannelFrame frame) {
+        synchronized (this) {
+            if (closed) return false;
+            if (queue.size() >= capacity) {
+                countDrops(1);
+                switch (policy) {
+                    case DROP_NEWEST:
+                        return false;
+                    case DISCONNECT:
+                        closed = true;
+                        countDrops(queue.size());
+                        queue.clear();
+                        disconnect();
+                        return false;
+                    case CONFLATE:
+                        if (conflate(event, frame)) return true;
+                        queue.pollFirst();
+                        break;
+                    default:
+                        queue.pollFirst();
+                }
+            }
+            queue.offerLast(new Outbound(event, frame));
+            if (writing) return true;
+            writing = true;
+        }
+        drain();
+        return true;
+    }
+
+    /** Enqueue a ping ahead of the queued messages, return false if closed */
+    public boolean ping() {
+        synchronized (this) {
+            if (closed) return false;
+            pingPending = true;
+            if (writing) return true;
+            writing = true;
+        }
+        drain();
+        return true;
+    }
+
+    /** Get count of queued messages (excluding the one in flight) */
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    /** Discard the queued messages */
+    public synchronized void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    private void countDrops(int count) {
+        LongAdder counter = drops.get();
+        if (counter != null) counter.add(count);
+    }
+
+    /** Replace the latest queued message of same event in place, return false if none */
+    private boolean conflate(String event, ChannelFrame frame) {
+        if (event == null) return false;
+        for (Iterator<Outbound> iterator = queue.descendingIterator(); iterator.hasNext(); ) {
+            Outbound outbound = iterator.next();
+            if (event.equals(outbound.event)) {
+                outbound.frame = frame;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Write the queued messages one by one until empty or the write goes async */
+    private void drain() {
+        while (true) {
+            ChannelFrame frame = null;
+            synchronized (this) {
+                if (closed || !pingPending && queue.isEmpty()) {
+                    writing = false;
+                    return;
+                }
+                if (!pingPending) {
+                    frame = queue.pollFirst().frame;
+                    inline = true;
+                }
+                pingPending = false;
+            }
+            try {
+                // Nothing is in flight, so the control frame is written at once
+                if (frame == null) {
+                    session.getAsyncRemote().sendPing(ByteBuffer.allocate(0));
+                    continue;
+                }
+                if (format == ChannelFrame.Format.CBOR) session.getAsyncRemote().sendBinary(frame.binary(), this::onResult);
+                else session.getAsyncRemote().sendText(frame.text(), this::onResult);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Session <{}> failed to send message.", session.getId(), e);
+                synchronized (this) {
+                    inline = false;
+                    completedInline = false;
+                    writing = false;
+                    closed = true;
+                    queue.clear();
+                }
+                return;
+            }
+            synchronized (this) {
+                inline = false;
+                if (!completedInline) return; // The callback will continue draining
+                completedInline = false;
+            }
+        }
+    }
+
+    private void onResult(SendResult result) {
+        if (!result.isOK()) {
+            log.debug("Session <{}> failed to send message.", session.getId(), result.getException());
+            close();
+        }
+        synchronized (this) {
+            if (inline) {
+                completedInline = true;
+                return;
+            }
+        }
+        drain();
+    }
+
+    /** Close the session asynchronously, since it may wait for the write in flight */
+    private void disconnect() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Slow consumer"));
+            } catch (IOException e) {
+                log.debug("Session <{}> failed to close.", session.getId(), e);
+            }
+        });
+    }
+
+    /** Queued Message */
+    private static class Outbound {
+        private final String event;
+        private ChannelFrame frame;
+
+        private Outbound(String event, ChannelFrame frame) {
+            this.event = event;
+            this.frame = frame;
+        }
+    }
+
+    /** Policy When the Queue Is Full */
+    public enum OverflowPolicy {
+        /** Drop the oldest queued message */
+        DROP_OLDEST,
+        /** Drop the message being offered */
+        DROP_NEWEST,
+        /** Replace the queued message of same event, or drop the oldest if none */
+        CONFLATE,
+        /** Close the session */
+        DISCONNECT
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.arraywork.autumn.channel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.arraywork.autumn.external.NanoId;
+
+/**
+ * Replay Buffer of Channel
+ * Ring buffer of the recent encoded messages, so that a reconnecting client
+ * can receive only the missed tail. Ids are '{epoch}:{sequence}', where the
+ * epoch is random per buffer (and therefore per node and per process start),
+ * and the sequence increases monotonically within the epoch. Clients should
+ * ignore an id whose sequence is not greater than the last seen of the same
+ * epoch, and accept the id of another epoch as the start of a new stream.
+ * If the last id is unknown, in the future or already overwritten, the client
+ * is told to resync instead of receiving a tail with a gap.
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+public class ReplayBuffer<T> {
+
+    private static final int EPOCH_SIZE = 10;
+    private static final char SEPARATOR = ':';
+
+    private final String epoch = NanoId.randomNanoId(NanoId.DEFAULT_NUMBER_GENERATOR, NanoId.DEFAULT_ALPHABET, EPOCH_SIZE);
+    private final Entry<T>[] ring;
+    private long lastSequence;
+    private volatile long lastAppendTime = System.currentTimeMillis();
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public ReplayBuffer(int capacity) {
+        this.ring = new Entry[capacity];
+    }
+
+    /** Assign the next id and append the message encoded with it */
+    public synchronized Entry<T> append(String event, Function<String, T> encoder) {
+        long sequence = ++lastSequence;
+        lastAppendTime = System.currentTimeMillis();
+        String id = epoch + SEPARATOR + sequence;
+        Entry<T> entry = new Entry<>(id, event, encoder.apply(id));
+        ring[(int) (sequence % ring.length)] = entry;
+        return entry;
+    }
+
+    /**
+     * Run the action with the retained messages after the id, no message is appended
+     * meanwhile. Replaying and registering a subscriber in the action makes the live
+     * messages come after the replayed ones, without gap.
+     */
+    public synchronized void replay(String lastId, Consumer<Replay<T>> action) {
+        long sequence = parseSequence(lastId);
+        long oldest = Math.max(lastSequence - ring.length + 1, 1);
+        if (sequence < 1 || sequence > lastSequence || sequence + 1 < oldest) {
+            action.accept(new Replay<>(Collections.emptyList(), true, getLastId()));
+            return;
+        }
+        List<Entry<T>> entries = new ArrayList<>((int) (lastSequence - sequence));
+        for (long i = sequence + 1; i <= lastSequence; i++) {
+            entries.add(ring[(int) (i % ring.length)]);
+        }
+        action.accept(new Replay<>(entries, false, getLastId()));
+    }
+
+    /** Get the id of last message, null if none */
+    public synchronized String getLastId() {
+        return lastSequence > 0 ? epoch + SEPARATOR + lastSequence : null;
+    }
+
+    /** Check nothing has been appended within the milliseconds */
+    public boolean isIdle(long duration) {
+        return System.currentTimeMillis() - lastAppendTime > duration;
+    }
+
+    /** Get the sequence of id in this epoch, -1 if issued by others or malformed */
+    private long parseSequence(String id) {
+        if (id == null || id.length() <= epoch.length() + 1 || !id.startsWith(epoch)
+            || id.charAt(epoch.length()) != SEPARATOR) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id, epoch.length() + 1, id.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Encoded Message with Id */
+    public record Entry<T>(String id, String event, T message) { }
+
+    /** Missed Messages, or resync if they cannot be replayed (last id is nullable) */
+    public record Replay<T>(List<Entry<T>> entries, boolean resync, String lastId) { }
+
+}
\ No newline at end of file
@@ -1,42 +1,282 @@
 package com.arraywork.autumn.channel;
 
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import jakarta.annotation.PreDestroy;
 
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.arraywork.autumn.helper.SerialExecutor;
+import com.arraywork.autumn.util.JsonUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * Server-Sent Event Channel
+ * Clients subscribe named topics (the default topic if not specified).
+ * Each broadcast is serialized once and fanned out over the live set of
+ * subscribers, which is never copied. The blocking writes are serialized
+ * per client on a bounded pool of writer threads, so that neither the
+ * caller nor the heartbeat scheduler waits for a slow client, and a stalled
+ * client pins at most one writer thread until the socket write times out.
+ * A shared scheduler queues a heartbeat comment to all clients periodically,
+ * a client whose last heartbeat is still not written after a whole interval,
+ * or whose pending writes reach the bound, is considered stalled and reaped
+ * (it resumes from the 'Last-Event-ID' when reconnected).
  *
  * @author Marco
  * @copyright ArrayWork Inc.
  * @since 2024/04/28
  */
 @Component
+@Slf4j
 public class SseChannel {
 
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private static final String DEFAULT_TOPIC = "";
+    private static final long HEARTBEAT_INTERVAL = 15_000; // 15 seconds
+    private static final long PRUNE_INTERVAL = 60_000; // 1 minute
+    private static final int WRITER_THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int MAX_PENDING_WRITES = 256; // Per client
+    private static final String RESYNC_EVENT = "resync"; // The missed messages cannot be replayed
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> HEARTBEAT = SseEmitter.event()
+        .comment("heartbeat").build();
+
+    private final ChannelRegistry<Client> registry = new ChannelRegistry<>();
+    private final Map<String, ReplayBuffer<String>> replays = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sse-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger writerCount = new AtomicInteger();
+    private final ExecutorService writer = Executors.newFixedThreadPool(WRITER_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "sse-writer-" + writerCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile int replayCapacity;
+    private volatile long replayTtl = 600_000;
+    private ScheduledFuture<?> heartbeat;
+
+    public SseChannel() {
+        setHeartbeatInterval(HEARTBEAT_INTERVAL);
+        scheduler.scheduleWithFixedDelay(this::pruneReplays, PRUNE_INTERVAL, PRUNE_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /** Set recent messages retained per topic for resuming (zero means disabled) */
+    public void setReplayCapacity(int capacity) {
+        this.replayCapacity = Math.max(capacity, 0);
+        replays.clear();
+    }
+
+    /** Set milliseconds to retain the replay buffer of topic after the last message */
+    public void setReplayTtl(long ttl) {
+        this.replayTtl = ttl;
+    }
+
+    /** Set milliseconds between heartbeat comments (zero means disabled) */
+    public synchronized void setHeartbeatInterval(long interval) {
+        if (heartbeat != null) heartbeat.cancel(false);
+        heartbeat = interval > 0
+            ? scheduler.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS)
+            : null;
+    }
 
-    /** Accept a client */
+    /** Accept a client of default topic */
     public SseEmitter subscribe() {
+        return subscribe(DEFAULT_TOPIC, null);
+    }
+
+    /** Accept a client of default topic and replay the messages after the 'Last-Event-ID' header (nullable) */
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(DEFAULT_TOPIC, lastEventId);
+    }
+
+    /** Accept a client of the topic and replay the messages after the 'Last-Event-ID' header (nullable) */
+    public SseEmitter subscribe(String topic, String lastEventId) {
         SseEmitter emitter = new SseEmitter(0L);
-        emitter.onTimeout(() -> emitters.remove(emitter));
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onError(e -> emitters.remove(emitter));
-        emitters.add(emitter);
+        Client client = new Client(topic, emitter, new SerialExecutor(writer));
+        emitter.onTimeout(() -> registry.remove(topic, client));
+        emitter.onCompletion(() -> registry.remove(topic, client));
+        emitter.onError(e -> registry.remove(topic, client));
+
+        int capacity = replayCapacity;
+        if (capacity <= 0 || lastEventId == null || lastEventId.isBlank()) {
+            registry.add(topic, client);
+            return emitter;
+        }
+        // Registered atomically with appends, so that live messages come after the replayed.
+        // Sent directly since the emitter is not returned yet, the data is only buffered.
+        ReplayBuffer<String> replay = replays.computeIfAbsent(topic, k -> new ReplayBuffer<>(capacity));
+        replay.replay(lastEventId.trim(), result -> {
+            if (result.resync() && !send(client, toResync(result.lastId()))) return;
+            for (ReplayBuffer.Entry<String> entry : result.entries()) {
+                if (!send(client, toEvent(entry.id(), entry.event(), entry.message()))) return;
+            }
+            registry.add(topic, client);
+        });
         return emitter;
     }
 
-    /** Broadcast message to all clients */
+    /** Broadcast message to all clients of default topic, the message is serialized only once */
     public void broadcast(Object object) {
-        for (SseEmitter emitter : emitters) {
-            try {
-                emitter.send(object);
-            } catch (Exception e) {
-                emitter.completeWithError(e);
+        broadcast(DEFAULT_TOPIC, null, object);
+    }
+
+    /** Broadcast message to all clients of the topic */
+    public int broadcast(String topic, Object object) {
+        return broadcast(topic, null, object);
+    }
+
+    /** Broadcast named event (nullable) to all clients of the topic, return count of clients queued */
+    public int broadcast(String topic, String event, Object object) {
+        Set<Client> clients = registry.getSessions(topic);
+        int capacity = replayCapacity;
+        if (clients.isEmpty() && capacity <= 0) return 0;
+
+        // Strings are sent as is, others are serialized to JSON
+        String text = object instanceof CharSequence ? object.toString() : JsonUtils.stringify(object);
+        String id = capacity > 0
+            ? replays.computeIfAbsent(topic, k -> new ReplayBuffer<>(capacity)).append(event, k -> text).id()
+            : null;
+        Set<ResponseBodyEmitter.DataWithMediaType> data = toEvent(id, event, text);
+
+        int result = 0;
+        for (Client client : clients) {
+            if (write(client, data, false)) result++;
+        }
+        return result;
+    }
+
+    /** Get names of the topics which have clients */
+    public Set<String> getTopics() {
+        return registry.getChannels();
+    }
+
+    /** Get count of clients of the topic */
+    public int getSubscriberCount(String topic) {
+        return registry.getSessionCount(topic);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+        writer.shutdownNow();
+        for (String topic : registry.getChannels()) {
+            registry.getSessions(topic).forEach(client -> client.emitter.complete());
+        }
+    }
+
+    private void pruneReplays() {
+        long ttl = replayTtl;
+        for (String topic : replays.keySet()) {
+            replays.computeIfPresent(topic, (key, replay) -> replay.isIdle(ttl) ? null : replay);
+        }
+    }
+
+    /** Queue the heartbeat comment to all clients, the stalled ones are reaped */
+    private void heartbeat() {
+        for (String topic : registry.getChannels()) {
+            for (Client client : registry.getSessions(topic)) {
+                if (client.beating) {
+                    reap(client, new IOException("Heartbeat write stalled"));
+                } else {
+                    client.beating = true;
+                    write(client, HEARTBEAT, true);
+                }
             }
         }
     }
 
+    /** Queue the data to the writer of client, return false if the client is reaped */
+    private boolean write(Client client, Set<ResponseBodyEmitter.DataWithMediaType> data, boolean heartbeat) {
+        if (client.reaped.get()) return false;
+        if (client.pending.incrementAndGet() > MAX_PENDING_WRITES) {
+            client.pending.decrementAndGet();
+            reap(client, new IOException("Too many pending writes"));
+            return false;
+        }
+        try {
+            client.executor.execute(() -> {
+                try {
+                    if (send(client, data) && heartbeat) client.beating = false;
+                } finally {
+                    client.pending.decrementAndGet();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            client.pending.decrementAndGet();
+            reap(client, e);
+            return false;
+        }
+    }
+
+    private boolean send(Client client, Set<ResponseBodyEmitter.DataWithMediaType> data) {
+        if (client.reaped.get()) return false;
+        try {
+            client.emitter.send(data);
+            return true;
+        } catch (Exception e) {
+            reap(client, e);
+            return false;
+        }
+    }
+
+    /**
+     * Remove the dead or stalled client at once, the completion callback may come later.
+     * Completing is not synchronized with the send, so it does not wait for a stalled write,
+     * which fails when the socket write times out and releases the writer thread.
+     */
+    private void reap(Client client, Exception e) {
+        registry.remove(client.topic, client);
+        if (!client.reaped.compareAndSet(false, true)) return;
+        log.debug("SSE client of topic <{}> is dead: {}", client.topic, e.getMessage());
+        client.emitter.completeWithError(e);
+    }
+
+    /**
+     * The missed messages cannot be replayed (issued by another node or process, or overwritten),
+     * the client should reload its state. The id resets the 'Last-Event-ID' of EventSource.
+     */
+    private Set<ResponseBodyEmitter.DataWithMediaType> toResync(String lastId) {
+        return SseEmitter.event().id(lastId != null ? lastId : "").name(RESYNC_EVENT)
+            .data(JsonUtils.stringify(lastId)).build();
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> toEvent(String id, String event, String text) {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event();
+        if (id != null) builder.id(id);
+        if (event != null) builder.name(event);
+        return builder.data(text).build();
+    }
+
+    /** Subscribed Emitter with Its Serial Writer */
+    private static class Client {
+        private final String topic;
+        private final SseEmitter emitter;
+        private final SerialExecutor executor;
+        private final AtomicInteger pending = new AtomicInteger(); // Writes queued or in flight
+        private final AtomicBoolean reaped = new AtomicBoolean();
+        private volatile boolean beating; // Heartbeat queued or in flight
+
+        private Client(String topic, SseEmitter emitter, SerialExecutor executor) {
+            this.topic = topic;
+            this.emitter = emitter;
+            this.executor = executor;
+        }
+    }
+
 }
\ No newline at end of file
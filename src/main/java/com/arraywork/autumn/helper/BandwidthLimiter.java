@@ -0,0 +1,146 @@
+package com.arraywork.autumn.helper;
+
+import java.io.Closeable;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bandwidth Limiter
+ * Token buckets per connection and per client with the cap of concurrent
+ * streams per client. The buckets are lock-free (GCRA with single CAS),
+ * and the client table is striped by the bins of concurrent hash map.
+ * (The rate of zero means unlimited)
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+public class BandwidthLimiter {
+
+    private static final long BURST_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+    private final long connectionRate;
+    private final long clientRate;
+    private final int maxStreams;
+
+    /**
+     * @param connectionRate Bytes per second of each connection
+     * @param clientRate     Bytes per second of all connections of each client
+     * @param maxStreams     Max concurrent streams of each client (zero means unlimited)
+     */
+    public BandwidthLimiter(long connectionRate, long clientRate, int maxStreams) {
+        this.connectionRate = connectionRate;
+        this.clientRate = clientRate;
+        this.maxStreams = maxStreams;
+    }
+
+    /** Open a stream for the client, or return null if too many concurrent streams */
+    public Stream open(String client) {
+        boolean[] accepted = new boolean[1];
+        Client state = clients.compute(client, (key, value) -> {
+            if (value == null) value = new Client(new TokenBucket(clientRate));
+            if (maxStreams <= 0 || value.streams < maxStreams) {
+                value.streams++;
+                accepted[0] = true;
+            }
+            return value;
+        });
+        return accepted[0] ? new Stream(client, state.bucket, new TokenBucket(connectionRate)) : null;
+    }
+
+    /** Get count of concurrent streams of the client */
+    public int getStreams(String client) {
+        Client state = clients.get(client);
+        return state != null ? state.streams : 0;
+    }
+
+    /** Throttled Stream of Connection */
+    public class Stream implements Closeable {
+
+        private final String client;
+        private final TokenBucket clientBucket;
+        private final TokenBucket connectionBucket;
+        private boolean closed;
+
+        private Stream(String client, TokenBucket clientBucket, TokenBucket connectionBucket) {
+            this.client = client;
+            this.clientBucket = clientBucket;
+            this.connectionBucket = connectionBucket;
+        }
+
+        /** Check whether any rate is limited, otherwise only the concurrent streams are */
+        public boolean isThrottled() {
+            return connectionBucket.rate > 0 || clientBucket.rate > 0;
+        }
+
+        /** Reserve bytes and return the nanoseconds to wait before sending them */
+        public long reserve(long bytes) {
+            return Math.max(connectionBucket.reserve(bytes), clientBucket.reserve(bytes));
+        }
+
+        /** Reserve bytes and wait until they can be sent */
+        public void acquire(long bytes) throws InterruptedIOException {
+            long deadline = System.nanoTime() + reserve(bytes);
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+        }
+
+        /** Release the stream, the client is removed when it has no streams */
+        @Override
+        public synchronized void close() {
+            if (closed) return;
+            closed = true;
+            clients.computeIfPresent(client, (key, value) -> --value.streams == 0 ? null : value);
+        }
+
+    }
+
+    /** Mutable state guarded by the bin lock of concurrent hash map */
+    private static class Client {
+        private final TokenBucket bucket;
+        private volatile int streams;
+
+        private Client(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+
+    /**
+     * Token Bucket by Generic Cell Rate Algorithm
+     * The theoretical arrival time is the only state, so that a reservation
+     * is a single CAS and never blocks other threads.
+     */
+    private static class TokenBucket {
+        private final AtomicLong arrival = new AtomicLong(System.nanoTime());
+        private final long rate;
+
+        private TokenBucket(long rate) {
+            this.rate = rate;
+        }
+
+        private long reserve(long bytes) {
+            if (rate <= 0) return 0;
+            long cost = (long) (bytes * 1e9 / rate);
+            long now, next;
+            do {
+                now = System.nanoTime();
+                long current = arrival.get();
+                next = Math.max(current, now) + cost;
+                if (arrival.compareAndSet(current, next)) break;
+            } while (true);
+            return Math.max(0, next - now - BURST_NANOS);
+        }
+    }
+
+}
\ No newline at end of file
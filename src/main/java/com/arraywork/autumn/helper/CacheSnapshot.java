@@ -0,0 +1,129 @@
+package com.arraywork.autumn.helper;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Cache Snapshot
+ * Entries are appended to a temporary file as length-prefixed records with
+ * absolute expiration time, which replaces the snapshot atomically once
+ * completed. Loading streams the records through memory-mapped windows, so
+ * the file is never materialized on heap, and a truncated tail is ignored.
+ *
+ * <pre>
+ *   Header: magic (int), version (int)
+ *   Record: key length (int), value length (int), expiration time (long), key, value
+ * </pre>
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+public class CacheSnapshot<K, V> {
+
+    private static final int MAGIC = 0x4543534E; // "ECSN"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES;
+    private static final long WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+
+    public CacheSnapshot(Path file, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        this.file = file.toAbsolutePath();
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+    }
+
+    /** Write the unexpired entries of the cache, return count of entries */
+    public synchronized long save(ExpiringCache<K, V> cache) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), "snapshot", ".tmp");
+        long[] count = new long[1];
+        try (DataOutputStream output = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            cache.forEachEntry((key, value, expirationTime) -> {
+                byte[] keyBytes = keySerializer.serialize(key);
+                byte[] valueBytes = valueSerializer.serialize(value);
+                output.writeInt(keyBytes.length);
+                output.writeInt(valueBytes.length);
+                output.writeLong(expirationTime);
+                output.write(keyBytes);
+                output.write(valueBytes);
+                count[0]++;
+            });
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return count[0];
+    }
+
+    /** Restore the unexpired entries into the cache, return count of entries */
+    public synchronized long load(ExpiringCache<K, V> cache) throws IOException {
+        if (!Files.exists(file)) return 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) return 0;
+            MappedByteBuffer buffer = map(channel, 0, size, HEADER_SIZE);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+                throw new IOException("Invalid cache snapshot: " + file);
+            }
+
+            long base = 0;
+            long position = HEADER_SIZE;
+            long count = 0;
+            long now = System.currentTimeMillis();
+            while (position + RECORD_HEADER_SIZE <= size) {
+                if (position + RECORD_HEADER_SIZE > base + buffer.limit()) {
+                    base = position;
+                    buffer = map(channel, base, size, RECORD_HEADER_SIZE);
+                }
+                int offset = (int) (position - base);
+                int keyLength = buffer.getInt(offset);
+                int valueLength = buffer.getInt(offset + Integer.BYTES);
+                long expirationTime = buffer.getLong(offset + Integer.BYTES * 2);
+                long end = position + RECORD_HEADER_SIZE + keyLength + valueLength;
+                if (keyLength < 0 || valueLength < 0 || end > size) break; // Truncated tail
+
+                if (expirationTime == 0 || expirationTime > now) {
+                    if (end > base + buffer.limit()) {
+                        base = position;
+                        buffer = map(channel, base, size, end - position);
+                        offset = 0;
+                    }
+                    byte[] keyBytes = new byte[keyLength];
+                    byte[] valueBytes = new byte[valueLength];
+                    buffer.get(offset + RECORD_HEADER_SIZE, keyBytes);
+                    buffer.get(offset + RECORD_HEADER_SIZE + keyLength, valueBytes);
+                    cache.restore(keySerializer.deserialize(keyBytes),
+                        valueSerializer.deserialize(valueBytes), expirationTime);
+                    count++;
+                }
+                position = end;
+            }
+            return count;
+        }
+    }
+
+    /** Map a read-only window from the position, at least the required length */
+    private MappedByteBuffer map(FileChannel channel, long position, long size, long required) throws IOException {
+        long length = Math.min(Math.max(WINDOW_SIZE, required), size - position);
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.arraywork.autumn.helper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.GZIPOutputStream;
+
+import com.arraywork.autumn.util.Digest;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compressed Variant Cache
+ * Disk-backed cache of gzip variants, each version of file (identified by
+ * its entity tag) is compressed only once, concurrent requests share the
+ * same compression, and the variants survive restarts.
+ * An outdated variant is deleted only after a grace period, since a response
+ * served by sendfile opens the file by name after the request is processed.
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+@Slf4j
+public class CompressedVariantCache {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final long RETENTION = 60_000_000_000L; // Nanoseconds to keep the outdated variant
+
+    private final Map<Path, Variant> variants = new ConcurrentHashMap<>();
+    private final Map<Path, CompletableFuture<Variant>> compressing = new ConcurrentHashMap<>();
+    private final Queue<Outdated> outdated = new ConcurrentLinkedQueue<>();
+    private final Path directory;
+
+    public CompressedVariantCache(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /** Get gzip variant of the file version, compress it if absent */
+    public Variant get(Path path, String etag) throws IOException {
+        Variant variant = variants.get(path);
+        if (variant != null && variant.etag().equals(etag)) {
+            return variant;
+        }
+
+        purge();
+
+        // Only one thread compresses the same version, others wait for it
+        Path target = directory.resolve(Digest.md5(path.toAbsolutePath() + etag) + ".gz");
+        CompletableFuture<Variant> future = new CompletableFuture<>();
+        CompletableFuture<Variant> existing = compressing.putIfAbsent(target, future);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw new IOException(e.getCause());
+            }
+        }
+
+        try {
+            outdated.removeIf(e -> e.file().equals(target)); // Reverted to the version
+            if (!Files.exists(target)) compress(path, target);
+            variant = new Variant(etag, target, Files.size(target));
+            Variant previous = variants.put(path, variant);
+            if (previous != null && !previous.file().equals(target)) {
+                outdated.offer(new Outdated(previous.file(), System.nanoTime()));
+            }
+            future.complete(variant);
+            return variant;
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            compressing.remove(target, future);
+        }
+    }
+
+    /** Compress to temporary file then move to target atomically */
+    private void compress(Path source, Path target) throws IOException {
+        Path temp = Files.createTempFile(directory, "variant", ".tmp");
+        try (InputStream input = Files.newInputStream(source);
+             OutputStream output = new GZIPOutputStream(Files.newOutputStream(temp), DEFAULT_BUFFER_SIZE)) {
+            input.transferTo(output);
+        } catch (IOException e) {
+            delete(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Delete the outdated variants after the grace period */
+    private void purge() {
+        Outdated head;
+        while ((head = outdated.peek()) != null && System.nanoTime() - head.time() > RETENTION) {
+            if (outdated.remove(head)) delete(head.file());
+        }
+    }
+
+    /** Delete outdated variant quietly (may still be opened by other requests) */
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Unable to delete variant: {}", file, e);
+        }
+    }
+
+    /** Compressed Variant of File Version */
+    public record Variant(String etag, Path file, long size) { }
+
+    /** Variant File Replaced at the Time */
+    private record Outdated(Path file, long time) { }
+
+}
\ No newline at end of file
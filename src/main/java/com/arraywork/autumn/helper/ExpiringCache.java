@@ -1,30 +1,156 @@
 package com.arraywork.autumn.helper;
 
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import jakarta.annotation.PreDestroy;
 
 import org.springframework.stereotype.Component;
 
-import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Expiring Cache
+ * Optionally bounded by entry count or total weight, the entries are evicted
+ * by CLOCK (second chance, an approximation of LRU). Puts never take a lock,
+ * eviction is done by whichever thread wins the flag while others move on.
+ * Expired entries are removed by a timer wheel which touches only the
+ * entries that are due, and are also checked lazily on access. The wheel
+ * is shared by all caches, its thread starts on the first expiring entry.
+ * Concurrent misses of the same key share a single in-flight load.
+ * With an off-heap store, the entries evicted by bounds are spilled to it
+ * instead of being dropped, and promoted back to heap on access.
+ * With a snapshot, the entries survive restarts.
  *
  * @author ChatGPT 3.5
  * @copyright ArrayWork Inc.
  * @since 2024/02/20
  */
 @Component
+@Slf4j
 public class ExpiringCache<K, V> {
 
-    private final Map<K, CacheEntry<V>> cache = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    // Shared by all caches, the tasks only unlink the due entries
+    private static final TimerWheel TIMER_WHEEL = new TimerWheel("expiring-cache", 1, TimeUnit.SECONDS);
+
+    private final Map<K, CacheEntry<K, V>> cache = new ConcurrentHashMap<>();
+    private final Queue<CacheEntry<K, V>> clock = new ConcurrentLinkedQueue<>();
+    private final Map<Reason, LongAdder> evictions = new EnumMap<>(Reason.class);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadTime = new LongAdder(); // Total nanoseconds of loading
+    private final LongAdder spills = new LongAdder();
+    private final AtomicLong totalWeight = new AtomicLong();
+    private final AtomicLong garbage = new AtomicLong(); // Replaced or removed entries still in clock
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final long maxEntries;
+    private final long maxWeight;
+    private final Weigher<K, V> weigher;
+    private EvictionListener<K, V> evictionListener;
+    private Executor executor = ForkJoinPool.commonPool();
+    private double refreshAhead; // Ratio of the remaining duration to refresh
+    private OffHeapStore<K, V> offHeapStore;
+    private CacheSnapshot<K, V> snapshot;
+    private ScheduledExecutorService snapshotScheduler;
+
+    /** Unbounded cache */
+    public ExpiringCache() {
+        this(0, 0, null);
+    }
+
+    /** Cache bounded by entry count */
+    public ExpiringCache(long maxEntries) {
+        this(maxEntries, 0, null);
+    }
+
+    /** Cache bounded by total weight */
+    public ExpiringCache(long maxWeight, Weigher<K, V> weigher) {
+        this(0, maxWeight, weigher);
+    }
+
+    /** Cache bounded by entry count and total weight (zero means unlimited) */
+    public ExpiringCache(long maxEntries, long maxWeight, Weigher<K, V> weigher) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        for (Reason reason : Reason.values()) {
+            evictions.put(reason, new LongAdder());
+        }
+    }
+
+    public void onEviction(EvictionListener<K, V> listener) {
+        this.evictionListener = listener;
+    }
+
+    /** Set the store which the entries evicted by bounds are spilled to */
+    public void setOffHeapStore(OffHeapStore<K, V> store) {
+        this.offHeapStore = store;
+    }
+
+    /**
+     * Restore the entries from snapshot, then save it periodically and on destroy
+     * (zero period means only on destroy)
+     */
+    public synchronized void setSnapshot(CacheSnapshot<K, V> snapshot, long period, TimeUnit timeUnit) {
+        this.snapshot = snapshot;
+        try {
+            long count = snapshot.load(this);
+            log.info("Cache snapshot restored: {} entries", count);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to restore cache snapshot", e);
+        }
+
+        if (snapshotScheduler != null) snapshotScheduler.shutdown();
+        if (period > 0) {
+            snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cache-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotScheduler.scheduleWithFixedDelay(this::saveSnapshot, period, period, timeUnit);
+        }
+    }
+
+    /** Set the executor of async loading and refreshing */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Set the ratio of remaining duration (0 ~ 1) to reload the entry in background
+     * while still serving the current value, e.g. 0.2 refreshes in the last 20%
+     */
+    public void setRefreshAhead(double ratio) {
+        this.refreshAhead = ratio;
+    }
 
     public void put(K key, V value) {
-        cache.put(key, new CacheEntry<>(value, 0));
+        putEntry(key, value, 0);
     }
 
     public void put(K key, V value, long duration) {
@@ -33,37 +159,487 @@ public class ExpiringCache<K, V> {
 
     public void put(K key, V value, long duration, TimeUnit timeUnit) {
         long expirationTime = System.currentTimeMillis() + timeUnit.toMillis(duration);
-        cache.put(key, new CacheEntry<>(value, expirationTime));
-        scheduleCleanup();
+        putEntry(key, value, expirationTime);
     }
 
     public V get(K key) {
+        CacheEntry<K, V> entry = getEntry(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /** Get value or load it if absent (never expires) */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return get(key, loader, 0, TimeUnit.SECONDS);
+    }
+
+    /** Get value or load it if absent, the loaded value expires after duration (zero means never) */
+    public V get(K key, Function<? super K, ? extends V> loader, long duration, TimeUnit timeUnit) {
+        long ttl = timeUnit.toMillis(duration);
+        CacheEntry<K, V> entry = getEntry(key);
+        if (entry != null) {
+            if (isRefreshDue(entry, ttl)) load(key, loader, ttl, executor);
+            return entry.value;
+        }
+        return join(load(key, loader, ttl, null));
+    }
+
+    /** Get value or load it on the executor if absent */
+    public CompletableFuture<V> getAsync(K key, Function<? super K, ? extends V> loader,
+                                         long duration, TimeUnit timeUnit) {
+        long ttl = timeUnit.toMillis(duration);
+        CacheEntry<K, V> entry = getEntry(key);
+        if (entry != null) {
+            if (isRefreshDue(entry, ttl)) load(key, loader, ttl, executor);
+            return CompletableFuture.completedFuture(entry.value);
+        }
+        return load(key, loader, ttl, executor);
+    }
+
+    /** Get value or compose the future of loader if absent, no thread waits for the loading */
+    public CompletableFuture<V> getFuture(K key, Function<? super K, ? extends CompletableFuture<? extends V>> loader,
+                                          long duration, TimeUnit timeUnit) {
+        long ttl = timeUnit.toMillis(duration);
+        CacheEntry<K, V> entry = getEntry(key);
+        if (entry != null) {
+            if (isRefreshDue(entry, ttl)) compose(key, loader, ttl);
+            return CompletableFuture.completedFuture(entry.value);
+        }
+        return compose(key, loader, ttl);
+    }
+
+    /**
+     * Get values of the keys, the absent ones which are not being loaded by others
+     * are loaded in one call of bulk loader. Keys without value are not in result.
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys, Function<? super Set<K>, Map<K, V>> bulkLoader,
+                            long duration, TimeUnit timeUnit) {
+        long ttl = timeUnit.toMillis(duration);
+        Map<K, V> found = new HashMap<>();
+        Map<K, CompletableFuture<V>> waiting = new HashMap<>();
+        Map<K, CompletableFuture<V>> owned = new LinkedHashMap<>();
+
+        for (K key : keys) {
+            CacheEntry<K, V> entry = getEntry(key);
+            if (entry != null) {
+                found.put(key, entry.value);
+                continue;
+            }
+            CompletableFuture<V> future = new CompletableFuture<>();
+            CompletableFuture<V> existing = loading.putIfAbsent(key, future);
+            if (existing != null) waiting.put(key, existing);
+            else owned.put(key, future);
+        }
+
+        // Load the owned keys in bulk and complete their futures
+        if (!owned.isEmpty()) {
+            long startTime = System.nanoTime();
+            try {
+                Map<K, V> loaded = bulkLoader.apply(Collections.unmodifiableSet(owned.keySet()));
+                loadTime.add(System.nanoTime() - startTime);
+                loadSuccesses.increment();
+                owned.forEach((key, future) -> {
+                    V value = loaded != null ? loaded.get(key) : null;
+                    if (value != null) {
+                        putEntry(key, value, ttl > 0 ? System.currentTimeMillis() + ttl : 0);
+                        found.put(key, value);
+                    }
+                    future.complete(value);
+                });
+            } catch (RuntimeException e) {
+                loadTime.add(System.nanoTime() - startTime);
+                loadFailures.increment();
+                owned.values().forEach(future -> future.completeExceptionally(e));
+                throw e;
+            } finally {
+                owned.forEach(loading::remove);
+            }
+        }
+        waiting.forEach((key, future) -> {
+            V value = join(future);
+            if (value != null) found.put(key, value);
+        });
+
+        // Keep the order of requested keys
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = found.get(key);
+            if (value != null) result.put(key, value);
+        }
+        return result;
+    }
+
+    public void remove(K key) {
+        CacheEntry<K, V> entry = cache.remove(key);
+        if (entry != null) discard(entry);
+        if (offHeapStore != null) offHeapStore.remove(key);
+    }
+
+    /** Remove all entries (not counted as evictions) */
+    public void clear() {
+        for (CacheEntry<K, V> entry : cache.values()) {
+            if (cache.remove(entry.key, entry)) discard(entry);
+        }
+        if (offHeapStore != null) offHeapStore.clear();
+    }
+
+    /** Get count of entries on heap */
+    public long size() {
+        return cache.size();
+    }
+
+    /** Get total weight of entries (equals to size if no weigher) */
+    public long weight() {
+        return totalWeight.get();
+    }
+
+    /** Get eviction count of specified reason */
+    public long getEvictionCount(Reason reason) {
+        return evictions.get(reason).sum();
+    }
+
+    /** Get eviction counts of all reasons */
+    public Map<Reason, Long> getEvictionCounts() {
+        Map<Reason, Long> counts = new EnumMap<>(Reason.class);
+        evictions.forEach((reason, count) -> counts.put(reason, count.sum()));
+        return counts;
+    }
+
+    /** Get statistics */
+    public Stats getStats() {
+        long evicted = evictions.values().stream().mapToLong(LongAdder::sum).sum();
+        return new Stats(hits.sum(), misses.sum(), puts.sum(), loadSuccesses.sum(),
+            loadFailures.sum(), loadTime.sum(), evicted, spills.sum());
+    }
+
+    /** Visit the unexpired entries on heap (for snapshot) */
+    void forEachEntry(EntryVisitor<K, V> visitor) throws IOException {
+        long now = System.currentTimeMillis();
+        for (CacheEntry<K, V> entry : cache.values()) {
+            if (!entry.isExpired(now)) visitor.visit(entry.key, entry.value, entry.expirationTime);
+        }
+    }
+
+    /** Restore the entry from snapshot */
+    void restore(K key, V value, long expirationTime) {
+        putIfAbsent(key, value, expirationTime);
+    }
+
+    private void saveSnapshot() {
+        try {
+            long count = snapshot.save(this);
+            log.debug("Cache snapshot saved: {} entries", count);
+        } catch (IOException | RuntimeException e) {
+            log.error("Unable to save cache snapshot", e);
+        }
+    }
+
+    /** Get the live entry and mark it referenced, remove it if expired or promote it from off-heap */
+    private CacheEntry<K, V> getEntry(K key) {
         if (key == null) return null;
 
-        CacheEntry<V> entry = cache.get(key);
+        CacheEntry<K, V> entry = cache.get(key);
         if (entry != null && !entry.isExpired()) {
-            return entry.value();
+            hits.increment();
+            entry.referenced = true;
+            return entry;
+        }
+        if (entry != null) expire(entry);
+
+        OffHeapStore.Entry<V> stored = offHeapStore != null ? offHeapStore.take(key) : null;
+        if (stored != null) {
+            hits.increment();
+            return putIfAbsent(key, stored.value(), stored.expirationTime());
         }
-        cache.remove(key);
+        misses.increment();
         return null;
     }
 
-    public void remove(K key) {
-        cache.remove(key);
+    /**
+     * Load the value once for concurrent callers, run in the calling thread
+     * if the executor is null. Null value is returned but not cached.
+     */
+    private CompletableFuture<V> load(K key, Function<? super K, ? extends V> loader, long ttl, Executor executor) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = loading.putIfAbsent(key, future);
+        if (existing != null) return existing;
+
+        Runnable task = () -> {
+            long startTime = System.nanoTime();
+            try {
+                V value = loader.apply(key);
+                loadTime.add(System.nanoTime() - startTime);
+                loadSuccesses.increment();
+                if (value != null) putEntry(key, value, ttl > 0 ? System.currentTimeMillis() + ttl : 0);
+                future.complete(value);
+            } catch (Throwable e) {
+                loadTime.add(System.nanoTime() - startTime);
+                loadFailures.increment();
+                future.completeExceptionally(e);
+            } finally {
+                loading.remove(key, future);
+            }
+        };
+
+        if (executor == null) {
+            task.run();
+        } else {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                loading.remove(key, future);
+                future.completeExceptionally(e);
+            }
+        }
+        return future;
     }
 
-    private void scheduleCleanup() {
-        scheduler.schedule(this::cleanup, 1, TimeUnit.MINUTES);
+    /** Load the value once for concurrent callers by the future of loader, null value is not cached */
+    private CompletableFuture<V> compose(K key, Function<? super K, ? extends CompletableFuture<? extends V>> loader,
+                                         long ttl) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = loading.putIfAbsent(key, future);
+        if (existing != null) return existing;
+
+        long startTime = System.nanoTime();
+        CompletableFuture<? extends V> loaded;
+        try {
+            loaded = loader.apply(key);
+            if (loaded == null) loaded = CompletableFuture.completedFuture(null);
+        } catch (Throwable e) {
+            loaded = CompletableFuture.failedFuture(e);
+        }
+        loaded.whenComplete((value, e) -> {
+            loadTime.add(System.nanoTime() - startTime);
+            try {
+                if (e != null) {
+                    loadFailures.increment();
+                    future.completeExceptionally(e instanceof CompletionException && e.getCause() != null
+                        ? e.getCause() : e);
+                } else {
+                    loadSuccesses.increment();
+                    if (value != null) putEntry(key, value, ttl > 0 ? System.currentTimeMillis() + ttl : 0);
+                    future.complete(value);
+                }
+            } catch (RuntimeException | Error error) {
+                future.completeExceptionally(error);
+            } finally {
+                loading.remove(key, future);
+            }
+        });
+        return future;
     }
 
-    private void cleanup() {
-        long currentTime = System.currentTimeMillis();
-        cache.entrySet().removeIf(entry -> entry.getValue().isExpired(currentTime));
-        scheduleCleanup();
+    /** Check the entry is in the refresh-ahead window of its duration */
+    private boolean isRefreshDue(CacheEntry<K, V> entry, long ttl) {
+        if (refreshAhead <= 0 || ttl <= 0 || entry.expirationTime <= 0) return false;
+        return entry.expirationTime - System.currentTimeMillis() < ttl * refreshAhead;
+    }
+
+    /** Wait for the loading and unwrap the exception */
+    private V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    /** Put entry with absolute expiration time (zero means never expires) */
+    private CacheEntry<K, V> putEntry(K key, V value, long expirationTime) {
+        int weight = weigher != null ? weigher.weigh(key, value) : 1;
+        CacheEntry<K, V> entry = new CacheEntry<>(key, value, expirationTime, weight);
+        CacheEntry<K, V> previous = cache.put(key, entry);
+        puts.increment();
+        if (previous != null) discard(previous);
+        else if (offHeapStore != null) offHeapStore.remove(key);
+        admit(entry);
+        return entry;
+    }
+
+    /** Put the promoted or restored entry, unless the key has been put meanwhile */
+    private CacheEntry<K, V> putIfAbsent(K key, V value, long expirationTime) {
+        int weight = weigher != null ? weigher.weigh(key, value) : 1;
+        CacheEntry<K, V> entry = new CacheEntry<>(key, value, expirationTime, weight);
+        CacheEntry<K, V> existing = cache.putIfAbsent(key, entry);
+        if (existing != null) return existing;
+        admit(entry);
+        return entry;
+    }
+
+    /** Account the entry which has been added to map */
+    private void admit(CacheEntry<K, V> entry) {
+        totalWeight.addAndGet(entry.weight);
+        if (entry.expirationTime > 0) scheduleExpiration(entry);
+        if (isBounded()) {
+            clock.offer(entry);
+            evictIfNeeded();
+        }
+    }
+
+    /** Account the entry which has been removed from map */
+    private void discard(CacheEntry<K, V> entry) {
+        totalWeight.addAndGet(-entry.weight);
+        if (entry.timeout != null) entry.timeout.cancel();
+        collectGarbage();
+    }
+
+    /** Evict the expired entry outside the sweep, it is left in the clock as garbage */
+    private void expire(CacheEntry<K, V> entry) {
+        if (evict(entry, Reason.EXPIRED)) collectGarbage();
+    }
+
+    /** Count an entry left in the clock after removed from map */
+    private void collectGarbage() {
+        if (isBounded() && garbage.incrementAndGet() > cache.size() && evicting.compareAndSet(false, true)) {
+            // Purge the clock when it is mostly garbage
+            try {
+                garbage.set(0);
+                clock.removeIf(e -> cache.get(e.key) != e);
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    /**
+     * Remove the entry if it is still mapped, spill it to off-heap store if evicted
+     * by bounds, otherwise (or if it cannot be stored) notify the listener
+     */
+    private boolean evict(CacheEntry<K, V> entry, Reason reason) {
+        OffHeapStore<K, V> store = reason != Reason.EXPIRED ? offHeapStore : null;
+        boolean spilled = false;
+        if (store == null) {
+            if (!cache.remove(entry.key, entry)) return false;
+        } else {
+            // Spill under the lock of key, so that a concurrent put cannot be followed by the stale value
+            boolean[] result = new boolean[2]; // Removed, spilled
+            cache.computeIfPresent(entry.key, (key, current) -> {
+                if (current != entry) return current;
+                result[0] = true;
+                result[1] = store.put(key, entry.value, entry.expirationTime);
+                return null;
+            });
+            if (!result[0]) return false;
+            spilled = result[1];
+        }
+        totalWeight.addAndGet(-entry.weight);
+        if (entry.timeout != null) entry.timeout.cancel();
+        if (spilled) {
+            spills.increment();
+            return true;
+        }
+        evictions.get(reason).increment();
+        EvictionListener<K, V> listener = evictionListener;
+        if (listener != null) listener.onEviction(entry.key, entry.value, reason);
+        return true;
+    }
+
+    /**
+     * Sweep the clock until under the bounds, referenced entries get a second
+     * chance, replaced or removed entries are dropped from the clock
+     */
+    private void evictIfNeeded() {
+        while (getOverflow() != null && evicting.compareAndSet(false, true)) {
+            try {
+                Reason reason;
+                while ((reason = getOverflow()) != null) {
+                    CacheEntry<K, V> entry = clock.poll();
+                    if (entry == null) return;
+                    if (cache.get(entry.key) != entry) {
+                        garbage.updateAndGet(count -> count > 0 ? count - 1 : 0);
+                    } else if (entry.isExpired()) {
+                        evict(entry, Reason.EXPIRED);
+                    } else if (entry.referenced) {
+                        entry.referenced = false;
+                        clock.offer(entry);
+                    } else {
+                        evict(entry, reason);
+                    }
+                }
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    private boolean isBounded() {
+        return maxEntries > 0 || maxWeight > 0;
+    }
+
+    /** Get which bound is exceeded, or null if under the bounds */
+    private Reason getOverflow() {
+        if (maxEntries > 0 && cache.size() > maxEntries) return Reason.SIZE;
+        if (maxWeight > 0 && totalWeight.get() > maxWeight) return Reason.WEIGHT;
+        return null;
+    }
+
+    /** Schedule the expiration on timer wheel (the wall clock may drift from it) */
+    private void scheduleExpiration(CacheEntry<K, V> entry) {
+        long delay = entry.expirationTime - System.currentTimeMillis() + 1;
+        entry.timeout = TIMER_WHEEL.schedule(() -> {
+            if (cache.get(entry.key) != entry) return;
+            if (entry.isExpired()) expire(entry);
+            else scheduleExpiration(entry);
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void destroy() {
+        if (snapshotScheduler != null) snapshotScheduler.shutdown();
+        if (snapshot != null) saveSnapshot();
+        // The wheel is shared, only the expirations of this cache are cancelled
+        for (CacheEntry<K, V> entry : cache.values()) {
+            if (entry.timeout != null) entry.timeout.cancel();
+        }
+    }
+
+    /** Reason of Eviction */
+    public enum Reason {
+        /** The entry has expired */
+        EXPIRED,
+        /** The entry count exceeded the maximum */
+        SIZE,
+        /** The total weight exceeded the maximum */
+        WEIGHT
+    }
+
+    /** Cache Statistics (the load time is in nanoseconds) */
+    public record Stats(long hits, long misses, long puts, long loadSuccesses,
+                        long loadFailures, long totalLoadTime, long evictions, long spills) { }
+
+    @FunctionalInterface
+    public interface Weigher<K, V> {
+        int weigh(K key, V value);
+    }
+
+    @FunctionalInterface
+    public interface EvictionListener<K, V> {
+        void onEviction(K key, V value, Reason reason);
+    }
+
+    @FunctionalInterface
+    interface EntryVisitor<K, V> {
+        void visit(K key, V value, long expirationTime) throws IOException;
     }
 
     /** Cache Entry with Expiration Time */
-    private record CacheEntry<T>(@Getter T value, long expirationTime) {
+    private static class CacheEntry<K, V> {
+
+        private final K key;
+        private final V value;
+        private final long expirationTime;
+        private final int weight;
+        private volatile boolean referenced;
+        private volatile TimerWheel.Timeout timeout;
+
+        private CacheEntry(K key, V value, long expirationTime, int weight) {
+            this.key = key;
+            this.value = value;
+            this.expirationTime = expirationTime;
+            this.weight = weight;
+        }
 
         public boolean isExpired() {
             return isExpired(System.currentTimeMillis());
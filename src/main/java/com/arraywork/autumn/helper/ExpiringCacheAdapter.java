@@ -0,0 +1,95 @@
+package com.arraywork.autumn.helper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+/**
+ * Spring Cache Adapter of Expiring Cache
+ * The entries expire after the time-to-live of the cache (zero means never),
+ * and the value loaders of concurrent misses are coalesced into one call.
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+public class ExpiringCacheAdapter extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final ExpiringCache<Object, Object> cache;
+    private final long timeToLive; // Milliseconds
+
+    public ExpiringCacheAdapter(String name, ExpiringCache<Object, Object> cache, long timeToLive) {
+        this(name, cache, timeToLive, true);
+    }
+
+    public ExpiringCacheAdapter(String name, ExpiringCache<Object, Object> cache, long timeToLive,
+                                boolean allowNullValues) {
+        super(allowNullValues);
+        this.name = name;
+        this.cache = cache;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public ExpiringCache<Object, Object> getNativeCache() {
+        return cache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        return cache.get(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = cache.get(key, k -> {
+            try {
+                return toStoreValue(valueLoader.call());
+            } catch (Exception e) {
+                throw new ValueRetrievalException(k, valueLoader, e);
+            }
+        }, timeToLive, TimeUnit.MILLISECONDS);
+        return (T) fromStoreValue(value);
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        Object value = lookup(key);
+        if (value == null) return null;
+        return CompletableFuture.completedFuture(isAllowNullValues() ? toValueWrapper(value) : fromStoreValue(value));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return cache.getFuture(key, k -> valueLoader.get().thenApply(this::toStoreValue),
+            timeToLive, TimeUnit.MILLISECONDS).thenApply(value -> (T) fromStoreValue(value));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (timeToLive > 0) cache.put(key, toStoreValue(value), timeToLive, TimeUnit.MILLISECONDS);
+        else cache.put(key, toStoreValue(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.arraywork.autumn.helper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Spring Cache Manager of Expiring Caches
+ * Each cache has its own time-to-live and max entries, the caches which are
+ * not configured are created on demand with the defaults. Bound to a meter
+ * registry, the meters of each cache are published when it is created.
+ *
+ * <pre>
+ *   &#64;Bean
+ *   public ExpiringCacheManager cacheManager(MeterRegistry registry) {
+ *       ExpiringCacheManager manager = new ExpiringCacheManager(Duration.ofMinutes(10), 10_000);
+ *       manager.setCache("users", Duration.ofHours(1), 1000);
+ *       manager.bindTo(registry);
+ *       return manager;
+ *   }
+ * </pre>
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+public class ExpiringCacheManager implements CacheManager, MeterBinder {
+
+    private final Map<String, ExpiringCacheAdapter> caches = new ConcurrentHashMap<>();
+    private final Map<String, Spec> specs = new ConcurrentHashMap<>();
+    private final Spec defaultSpec;
+    private volatile MeterRegistry registry;
+
+    /** Unbounded caches which never expire by default */
+    public ExpiringCacheManager() {
+        this(Duration.ZERO, 0);
+    }
+
+    /** Default time-to-live and max entries (zero means unlimited) */
+    public ExpiringCacheManager(Duration timeToLive, long maxEntries) {
+        this.defaultSpec = new Spec(timeToLive, maxEntries);
+    }
+
+    /** Configure the cache before it is created (zero means unlimited) */
+    public void setCache(String name, Duration timeToLive, long maxEntries) {
+        if (caches.containsKey(name)) {
+            throw new IllegalStateException("Cache '" + name + "' has already been created");
+        }
+        specs.put(name, new Spec(timeToLive, maxEntries));
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /** Publish the meters of existing caches and the caches created later */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        caches.forEach((name, cache) -> bindTo(registry, name, cache));
+    }
+
+    private ExpiringCacheAdapter createCache(String name) {
+        Spec spec = specs.getOrDefault(name, defaultSpec);
+        ExpiringCache<Object, Object> cache = new ExpiringCache<>(spec.maxEntries());
+        ExpiringCacheAdapter adapter = new ExpiringCacheAdapter(name, cache, spec.timeToLive().toMillis());
+        MeterRegistry registry = this.registry;
+        if (registry != null) bindTo(registry, name, adapter);
+        return adapter;
+    }
+
+    private void bindTo(MeterRegistry registry, String name, ExpiringCacheAdapter cache) {
+        new ExpiringCacheMetrics(cache.getNativeCache(), name, Tags.of("cacheManager", "expiring")).bindTo(registry);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        caches.values().forEach(cache -> cache.getNativeCache().destroy());
+    }
+
+    /** Settings of Cache */
+    private record Spec(Duration timeToLive, long maxEntries) { }
+
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.arraywork.autumn.helper;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Micrometer Binder of Expiring Cache
+ * Publishes the common cache meters (gets, puts, evictions, size) with
+ * load results, load duration, total weight, spills and evictions by reason.
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+public class ExpiringCacheMetrics extends CacheMeterBinder<ExpiringCache<?, ?>> {
+
+    /** The cache is weakly referenced by binder, meters report nothing after it is collected */
+    public ExpiringCacheMetrics(ExpiringCache<?, ?> cache, String cacheName, Iterable<Tag> tags) {
+        super(cache, cacheName, tags);
+    }
+
+    @Override
+    protected Long size() {
+        ExpiringCache<?, ?> cache = getCache();
+        return cache != null ? cache.size() : null;
+    }
+
+    @Override
+    protected long hitCount() {
+        ExpiringCache<?, ?> cache = getCache();
+        return cache != null ? cache.getStats().hits() : 0;
+    }
+
+    @Override
+    protected Long missCount() {
+        ExpiringCache<?, ?> cache = getCache();
+        return cache != null ? cache.getStats().misses() : null;
+    }
+
+    @Override
+    protected Long evictionCount() {
+        ExpiringCache<?, ?> cache = getCache();
+        return cache != null ? cache.getStats().evictions() : null;
+    }
+
+    @Override
+    protected long putCount() {
+        ExpiringCache<?, ?> cache = getCache();
+        return cache != null ? cache.getStats().puts() : 0;
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        ExpiringCache<?, ?> cache = getCache();
+        if (cache == null) return;
+        FunctionCounter.builder("cache.load", cache, c -> c.getStats().loadSuccesses())
+            .tags(getTagsWithCacheName()).tag("result", "success")
+            .description("The number of times cache lookup methods have successfully loaded a new value")
+            .register(registry);
+        FunctionCounter.builder("cache.load", cache, c -> c.getStats().loadFailures())
+            .tags(getTagsWithCacheName()).tag("result", "failure")
+            .description("The number of times cache lookup methods threw an exception while loading a new value")
+            .register(registry);
+        FunctionTimer.builder("cache.load.duration", cache,
+                c -> c.getStats().loadSuccesses() + c.getStats().loadFailures(),
+                c -> c.getStats().totalLoadTime(), TimeUnit.NANOSECONDS)
+            .tags(getTagsWithCacheName())
+            .description("The time the cache has spent loading new values")
+            .register(registry);
+        Gauge.builder("cache.weight", cache, ExpiringCache::weight)
+            .tags(getTagsWithCacheName())
+            .description("The total weight of entries in the cache")
+            .register(registry);
+        FunctionCounter.builder("cache.spills", cache, c -> c.getStats().spills())
+            .tags(getTagsWithCacheName())
+            .description("The number of entries spilled to the off-heap store")
+            .register(registry);
+        for (ExpiringCache.Reason reason : ExpiringCache.Reason.values()) {
+            FunctionCounter.builder("cache.evictions.reason", cache, c -> c.getEvictionCount(reason))
+                .tags(Tags.concat(getTagsWithCacheName(), "reason", reason.name().toLowerCase()))
+                .description("The number of evictions of the reason")
+                .register(registry);
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.arraywork.autumn.helper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * File Metadata Cache
+ * Bounded cache of file attributes keyed by absolute path, the entries
+ * are invalidated by the change events of their parent directories, so
+ * that hot files can be served without repeated stat syscalls.
+ * (Changes behind symbolic links are not observed)
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+@Slf4j
+public class FileMetadataCache implements Closeable {
+
+    private static final Metadata MISSING = new Metadata(0, 0, null);
+
+    private final Map<Path, Metadata> cache = new ConcurrentHashMap<>();
+    private final Set<Path> directories = ConcurrentHashMap.newKeySet();
+    private final AtomicLong generation = new AtomicLong(); // Increased on every change event
+    private final int maxEntries;
+
+    private volatile WatchService watcher;
+    private volatile boolean closed;
+
+    public FileMetadataCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /** Get metadata of regular file, or null if not exists */
+    public Metadata get(Path path) throws IOException {
+        path = path.toAbsolutePath().normalize();
+        Metadata metadata = cache.get(path);
+        if (metadata != null) {
+            return metadata == MISSING ? null : metadata;
+        }
+
+        // Watch before reading attributes so that no change can be missed,
+        // if the directory cannot be watched, the metadata is not cached
+        boolean watched = watch(path.getParent());
+        long expected = generation.get();
+        metadata = read(path);
+        if (watched) {
+            if (cache.size() >= maxEntries) evict();
+            cache.put(path, metadata);
+            // Discard it if any change event arrived while reading
+            if (generation.get() != expected) cache.remove(path, metadata);
+        }
+        return metadata == MISSING ? null : metadata;
+    }
+
+    /** Invalidate metadata of specified path */
+    public void invalidate(Path path) {
+        cache.remove(path.toAbsolutePath().normalize());
+    }
+
+    /** Invalidate all metadata */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /** Stop watching and clear the cache */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        if (watcher != null) watcher.close();
+        directories.clear();
+        cache.clear();
+    }
+
+    /** Read attributes of regular file */
+    private Metadata read(Path path) throws IOException {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attrs.isRegularFile()) return MISSING;
+
+            long size = attrs.size();
+            long lastModified = attrs.lastModifiedTime().toMillis();
+            Object fileKey = attrs.fileKey(); // Device and inode on unix-like systems
+            String etag = '"' + Long.toHexString(size) + '-' + Long.toHexString(lastModified)
+                + (fileKey != null ? "-" + Integer.toHexString(fileKey.hashCode()) : "") + '"';
+            return new Metadata(size, lastModified, etag);
+        } catch (NoSuchFileException e) {
+            return MISSING;
+        }
+    }
+
+    /** Register the directory to watch service */
+    private boolean watch(Path directory) {
+        if (directory == null || closed) return false;
+        if (directories.contains(directory)) return true;
+        try {
+            directory.register(getWatcher(),
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+            directories.add(directory);
+            return true;
+        } catch (IOException | ClosedWatchServiceException e) {
+            log.debug("Unable to watch directory: {}", directory, e);
+            return false;
+        }
+    }
+
+    /** Start the watching thread lazily */
+    private synchronized WatchService getWatcher() throws IOException {
+        if (closed) throw new ClosedWatchServiceException();
+        if (watcher == null) {
+            watcher = FileSystems.getDefault().newWatchService();
+            Thread thread = new Thread(this::process, "file-metadata-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return watcher;
+    }
+
+    /** Process change events */
+    private void process() {
+        try {
+            while (!closed) {
+                WatchKey key = watcher.take();
+                Path directory = (Path) key.watchable();
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    generation.incrementAndGet();
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        invalidateDirectory(directory);
+                    } else {
+                        cache.remove(directory.resolve((Path) event.context()));
+                    }
+                }
+                // Directory is deleted or inaccessible
+                if (!key.reset()) {
+                    directories.remove(directory);
+                    invalidateDirectory(directory);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    /** Invalidate all entries in specified directory */
+    private void invalidateDirectory(Path directory) {
+        cache.keySet().removeIf(path -> directory.equals(path.getParent()));
+    }
+
+    /** Evict an arbitrary entry to keep the cache bounded */
+    private void evict() {
+        Iterator<Path> iterator = cache.keySet().iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /** File Metadata with Strong Entity Tag */
+    public record Metadata(long size, long lastModified, String etag) { }
+
+}
\ No newline at end of file
@@ -0,0 +1,413 @@
+package com.arraywork.autumn.helper;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Off-Heap Store
+ * Serialized keys and values are kept in direct memory pages which are carved
+ * into chunks of size classes (like memcached slabs), each page is assigned to
+ * a class on demand until the memory budget is used up. Then a class with fewer
+ * pages takes the eldest page from the class with the most (its entries are
+ * evicted), so that the pages follow the sizes in demand. The index is an open
+ * addressing table of primitive arrays (hash and chunk handle) and the keys are
+ * compared in serialized form, so no object is kept on heap per entry and the
+ * GC work does not grow with the count. When a class is full its chunks are
+ * reused in FIFO order. Equal keys must be serialized to equal bytes.
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+public class OffHeapStore<K, V> implements Closeable {
+
+    private static final int DEFAULT_PAGE_SIZE = 1024 * 1024;
+    private static final int MIN_CHUNK_SIZE = 64;
+    private static final double GROWTH_FACTOR = 1.25;
+    // Chunk layout: hash, key length, value length, expiration time, key, value
+    private static final int HASH_OFFSET = 0;
+    private static final int KEY_LENGTH_OFFSET = 4;
+    private static final int VALUE_LENGTH_OFFSET = 8;
+    private static final int EXPIRATION_OFFSET = 12;
+    private static final int HEADER_SIZE = 20;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Index index = new Index();
+    private final List<Page> pages = new ArrayList<>();
+    private final SlabClass[] classes;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final int pageSize;
+    private final int maxPages;
+    private long evictions;
+    private long rejections;
+
+    /** Store of JSON serialized keys and values with default page size of 1MB */
+    public OffHeapStore(long capacity, Class<K> keyType, Class<V> valueType) {
+        this(capacity, Serializer.json(keyType), Serializer.json(valueType));
+    }
+
+    /** Store with default page size of 1MB */
+    public OffHeapStore(long capacity, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        this(capacity, DEFAULT_PAGE_SIZE, keySerializer, valueSerializer);
+    }
+
+    public OffHeapStore(long capacity, int pageSize, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.pageSize = pageSize;
+        this.maxPages = (int) Math.min(capacity / pageSize, Integer.MAX_VALUE);
+
+        List<SlabClass> list = new ArrayList<>();
+        for (double size = MIN_CHUNK_SIZE; size < pageSize; size *= GROWTH_FACTOR) {
+            list.add(new SlabClass((int) size + 7 & ~7)); // Align to 8 bytes
+        }
+        list.add(new SlabClass(pageSize));
+        this.classes = list.toArray(SlabClass[]::new);
+    }
+
+    /** Put the value with absolute expiration time, return false if it is too large to store */
+    public boolean put(K key, V value, long expirationTime) {
+        byte[] keyBytes = keySerializer.serialize(key);
+        byte[] valueBytes = valueSerializer.serialize(value);
+        int hash = hash(keyBytes);
+        SlabClass slabClass = getSlabClass(HEADER_SIZE + keyBytes.length + valueBytes.length);
+
+        lock.lock();
+        try {
+            int slot = find(hash, keyBytes);
+            if (slot >= 0) free(index.removeAt(slot));
+            if (slabClass == null) return false;
+
+            long handle = allocate(slabClass);
+            if (handle < 0) {
+                rejections++;
+                return false;
+            }
+            ByteBuffer buffer = pages.get((int) (handle >>> 32)).buffer;
+            int offset = (int) handle * slabClass.chunkSize;
+            buffer.putInt(offset + HASH_OFFSET, hash);
+            buffer.putInt(offset + KEY_LENGTH_OFFSET, keyBytes.length);
+            buffer.putInt(offset + VALUE_LENGTH_OFFSET, valueBytes.length);
+            buffer.putLong(offset + EXPIRATION_OFFSET, expirationTime);
+            buffer.put(offset + HEADER_SIZE, keyBytes);
+            buffer.put(offset + HEADER_SIZE + keyBytes.length, valueBytes);
+            index.insert(hash, handle);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Remove and return the unexpired entry, or null if absent */
+    public Entry<V> take(K key) {
+        byte[] keyBytes = keySerializer.serialize(key);
+        int hash = hash(keyBytes);
+        byte[] valueBytes;
+        long expirationTime;
+        lock.lock();
+        try {
+            int slot = find(hash, keyBytes);
+            if (slot < 0) return null;
+            long handle = index.removeAt(slot);
+            Page page = pages.get((int) (handle >>> 32));
+            int offset = (int) handle * page.slabClass.chunkSize;
+            expirationTime = page.buffer.getLong(offset + EXPIRATION_OFFSET);
+            valueBytes = new byte[page.buffer.getInt(offset + VALUE_LENGTH_OFFSET)];
+            page.buffer.get(offset + HEADER_SIZE + keyBytes.length, valueBytes);
+            free(handle);
+        } finally {
+            lock.unlock();
+        }
+        if (expirationTime > 0 && System.currentTimeMillis() > expirationTime) return null;
+        return new Entry<>(valueSerializer.deserialize(valueBytes), expirationTime);
+    }
+
+    public void remove(K key) {
+        byte[] keyBytes = keySerializer.serialize(key);
+        int hash = hash(keyBytes);
+        lock.lock();
+        try {
+            int slot = find(hash, keyBytes);
+            if (slot >= 0) free(index.removeAt(slot));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Remove all entries, the pages are kept for reuse */
+    public void clear() {
+        lock.lock();
+        try {
+            index.forEach(this::free);
+            index.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Get count of entries */
+    public long size() {
+        lock.lock();
+        try {
+            return index.size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Get statistics */
+    public Stats getStats() {
+        lock.lock();
+        try {
+            return new Stats(index.size, (long) pages.size() * pageSize,
+                (long) maxPages * pageSize, evictions, rejections);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Release the pages, the direct memory is freed when they are collected */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            index.clear();
+            pages.clear();
+            for (SlabClass slabClass : classes) slabClass.reset();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Get the smallest class which fits the size, or null if too large */
+    private SlabClass getSlabClass(int size) {
+        for (SlabClass slabClass : classes) {
+            if (slabClass.chunkSize >= size) return slabClass;
+        }
+        return null;
+    }
+
+    /** Find the slot of serialized key, or -1 if absent */
+    private int find(int hash, byte[] keyBytes) {
+        for (int slot = index.home(hash); ; slot = slot + 1 & index.mask) {
+            long handle = index.handles[slot];
+            if (handle == Index.EMPTY) return -1;
+            if (index.hashes[slot] == hash && keyEquals(handle - 1, keyBytes)) return slot;
+        }
+    }
+
+    private boolean keyEquals(long handle, byte[] keyBytes) {
+        Page page = pages.get((int) (handle >>> 32));
+        int offset = (int) handle * page.slabClass.chunkSize;
+        if (page.buffer.getInt(offset + KEY_LENGTH_OFFSET) != keyBytes.length) return false;
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (page.buffer.get(offset + HEADER_SIZE + i) != keyBytes[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Allocate a chunk from free list, new page, the page taken from the class with the most,
+     * or the eldest chunk of the class
+     */
+    private long allocate(SlabClass slabClass) {
+        if (slabClass.freeCount > 0) return slabClass.free[--slabClass.freeCount];
+
+        if (pages.size() < maxPages) {
+            int pageIndex = pages.size();
+            pages.add(null);
+            return assign(pageIndex, slabClass, ByteBuffer.allocateDirect(pageSize));
+        }
+
+        // Move a page if the class has none, or the difference is more than one
+        // (otherwise two classes would take turns)
+        SlabClass richest = slabClass;
+        for (SlabClass candidate : classes) {
+            if (candidate.pages.size() > richest.pages.size()) richest = candidate;
+        }
+        if (richest.pages.size() > slabClass.pages.size() + 1 || slabClass.pages.isEmpty() && richest != slabClass) {
+            int pageIndex = release(richest);
+            return assign(pageIndex, slabClass, pages.get(pageIndex).buffer);
+        }
+
+        // Reuse the chunks of this class in FIFO order, all of them are in use
+        if (slabClass.pages.isEmpty()) return -1;
+        int pageIndex = slabClass.pages.get(slabClass.cursorPage);
+        Page page = pages.get(pageIndex);
+        long handle = (long) pageIndex << 32 | slabClass.cursorChunk;
+        if (++slabClass.cursorChunk == page.chunks) {
+            slabClass.cursorChunk = 0;
+            slabClass.cursorPage = (slabClass.cursorPage + 1) % slabClass.pages.size();
+        }
+        int hash = page.buffer.getInt((int) handle * slabClass.chunkSize + HASH_OFFSET);
+        if (index.removeHandle(hash, handle)) evictions++;
+        return handle;
+    }
+
+    /** Carve the page into chunks of the class, return the first chunk and free the others */
+    private long assign(int pageIndex, SlabClass slabClass, ByteBuffer buffer) {
+        Page page = new Page(slabClass, buffer, pageSize / slabClass.chunkSize);
+        pages.set(pageIndex, page);
+        slabClass.pages.add(pageIndex);
+        for (int i = page.chunks - 1; i > 0; i--) {
+            slabClass.push((long) pageIndex << 32 | i);
+        }
+        return (long) pageIndex << 32;
+    }
+
+    /** Take the eldest page (next to reuse) from the class, evict its entries and return its index */
+    private int release(SlabClass slabClass) {
+        int pageIndex = slabClass.pages.remove(slabClass.cursorPage);
+        slabClass.cursorChunk = 0;
+        if (slabClass.cursorPage >= slabClass.pages.size()) slabClass.cursorPage = 0;
+        slabClass.removeFree(pageIndex);
+
+        Page page = pages.get(pageIndex);
+        for (int i = 0; i < page.chunks; i++) {
+            long handle = (long) pageIndex << 32 | i;
+            int hash = page.buffer.getInt(i * slabClass.chunkSize + HASH_OFFSET);
+            if (index.removeHandle(hash, handle)) evictions++;
+        }
+        return pageIndex;
+    }
+
+    private void free(long handle) {
+        pages.get((int) (handle >>> 32)).slabClass.push(handle);
+    }
+
+    private static int hash(byte[] bytes) {
+        int hash = Arrays.hashCode(bytes) * 0x9E3779B9;
+        return hash ^ hash >>> 16;
+    }
+
+    /** Open Addressing Index of Chunk Handles with Linear Probing (guarded by the lock) */
+    private static class Index {
+        private static final long EMPTY = 0; // Handles are stored plus one
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private int[] hashes = new int[INITIAL_CAPACITY];
+        private long[] handles = new long[INITIAL_CAPACITY];
+        private int mask = INITIAL_CAPACITY - 1;
+        private int size;
+
+        private int home(int hash) {
+            return hash & mask;
+        }
+
+        private void insert(int hash, long handle) {
+            if (size + 1 > handles.length * 3L / 4) resize(handles.length * 2);
+            int slot = home(hash);
+            while (handles[slot] != EMPTY) slot = slot + 1 & mask;
+            hashes[slot] = hash;
+            handles[slot] = handle + 1;
+            size++;
+        }
+
+        /** Remove the slot and return its handle, the following slots are shifted back without tombstone */
+        private long removeAt(int slot) {
+            long handle = handles[slot] - 1;
+            handles[slot] = EMPTY;
+            size--;
+            for (int next = slot + 1 & mask; handles[next] != EMPTY; next = next + 1 & mask) {
+                int home = home(hashes[next]);
+                boolean reachable = slot <= next ? home > slot && home <= next : home > slot || home <= next;
+                if (!reachable) {
+                    hashes[slot] = hashes[next];
+                    handles[slot] = handles[next];
+                    handles[next] = EMPTY;
+                    slot = next;
+                }
+            }
+            return handle;
+        }
+
+        /** Remove the slot of the handle, return false if absent */
+        private boolean removeHandle(int hash, long handle) {
+            for (int slot = home(hash); handles[slot] != EMPTY; slot = slot + 1 & mask) {
+                if (handles[slot] == handle + 1) {
+                    removeAt(slot);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void forEach(LongConsumer action) {
+            for (long handle : handles) {
+                if (handle != EMPTY) action.accept(handle - 1);
+            }
+        }
+
+        private void clear() {
+            hashes = new int[INITIAL_CAPACITY];
+            handles = new long[INITIAL_CAPACITY];
+            mask = INITIAL_CAPACITY - 1;
+            size = 0;
+        }
+
+        private void resize(int capacity) {
+            int[] oldHashes = hashes;
+            long[] oldHandles = handles;
+            hashes = new int[capacity];
+            handles = new long[capacity];
+            mask = capacity - 1;
+            size = 0;
+            for (int i = 0; i < oldHandles.length; i++) {
+                if (oldHandles[i] != EMPTY) insert(oldHashes[i], oldHandles[i] - 1);
+            }
+        }
+    }
+
+    /** Slab Class of Chunk Size (guarded by the lock) */
+    private static class SlabClass {
+        private final int chunkSize;
+        private final List<Integer> pages = new ArrayList<>();
+        private long[] free = new long[16];
+        private int freeCount;
+        private int cursorPage, cursorChunk;
+
+        private SlabClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        private void push(long handle) {
+            if (freeCount == free.length) {
+                long[] grown = new long[free.length * 2];
+                System.arraycopy(free, 0, grown, 0, freeCount);
+                free = grown;
+            }
+            free[freeCount++] = handle;
+        }
+
+        /** Remove the free chunks of the page */
+        private void removeFree(int pageIndex) {
+            int count = 0;
+            for (int i = 0; i < freeCount; i++) {
+                if ((int) (free[i] >>> 32) != pageIndex) free[count++] = free[i];
+            }
+            freeCount = count;
+        }
+
+        private void reset() {
+            pages.clear();
+            free = new long[16];
+            freeCount = cursorPage = cursorChunk = 0;
+        }
+    }
+
+    /** Direct Memory Page */
+    private record Page(SlabClass slabClass, ByteBuffer buffer, int chunks) { }
+
+    /** Stored Value with Expiration Time */
+    public record Entry<V>(V value, long expirationTime) { }
+
+    /** Store Statistics (memory in bytes) */
+    public record Stats(long count, long allocated, long capacity, long evictions, long rejections) { }
+
+}
\ No newline at end of file
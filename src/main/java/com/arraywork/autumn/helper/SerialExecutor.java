@@ -0,0 +1,106 @@
+package com.arraywork.autumn.helper;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serial Executor
+ * Runs the tasks one at a time in submission order on a shared executor,
+ * without holding a thread while idle. A busy instance yields the thread
+ * after a batch of tasks, so that it cannot starve the others.
+ * If bounded, a submitter blocks while the tasks pending (including the one
+ * running) reach the limit, which applies backpressure to the producer, such
+ * as the socket reader. Tasks submitted by the running task never block.
+ * If the shared executor runs a rejected drain on the caller (CallerRunsPolicy),
+ * the order is still kept.
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+@Slf4j
+public class SerialExecutor implements Executor {
+
+    private static final int BATCH_SIZE = 64;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Executor executor;
+    private final Semaphore permits; // Null if unbounded
+    private volatile Thread drainer;
+
+    /** Unbounded */
+    public SerialExecutor(Executor executor) {
+        this(executor, 0);
+    }
+
+    /** Bounded by the max pending tasks (zero means unbounded) */
+    public SerialExecutor(Executor executor, int maxPending) {
+        this.executor = executor;
+        this.permits = maxPending > 0 ? new Semaphore(maxPending) : null;
+    }
+
+    /** Enqueue the task, block while the pending tasks reach the bound */
+    @Override
+    public void execute(Runnable task) {
+        Semaphore permits = this.permits;
+        if (permits == null || Thread.currentThread() == drainer) {
+            tasks.offer(task);
+        } else {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for pending tasks", e);
+            }
+            tasks.offer(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+        schedule();
+    }
+
+    /** Get count of tasks waiting to run */
+    public int size() {
+        return tasks.size();
+    }
+
+    private void schedule() {
+        if (tasks.isEmpty() || !running.compareAndSet(false, true)) return;
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private void drain() {
+        drainer = Thread.currentThread();
+        try {
+            Runnable task;
+            for (int i = 0; i < BATCH_SIZE && (task = tasks.poll()) != null; i++) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error(e.getMessage(), e);
+                }
+            }
+        } finally {
+            drainer = null;
+            running.set(false);
+        }
+        schedule(); // Tasks added while finishing, or left over from the batch
+    }
+
+}
\ No newline at end of file
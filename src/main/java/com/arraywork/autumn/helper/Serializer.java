@@ -0,0 +1,50 @@
+package com.arraywork.autumn.helper;
+
+import java.nio.charset.StandardCharsets;
+
+import com.arraywork.autumn.util.JsonUtils;
+
+/**
+ * Serializer of Cached Objects
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+public interface Serializer<T> {
+
+    byte[] serialize(T object);
+
+    T deserialize(byte[] bytes);
+
+    /** Serializer of JSON by JsonUtils */
+    static <T> Serializer<T> json(Class<T> type) {
+        return new Serializer<>() {
+            @Override
+            public byte[] serialize(T object) {
+                return JsonUtils.stringify(object).getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public T deserialize(byte[] bytes) {
+                return JsonUtils.parse(new String(bytes, StandardCharsets.UTF_8), type);
+            }
+        };
+    }
+
+    /** Serializer of UTF-8 string */
+    static Serializer<String> string() {
+        return new Serializer<>() {
+            @Override
+            public byte[] serialize(String object) {
+                return object.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String deserialize(byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.arraywork.autumn.helper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.arraywork.autumn.helper.FileMetadataCache.Metadata;
+
+/**
+ * Small File Cache
+ * Keeps the contents of small hot files in heap arrays bounded by total size.
+ * The servlet output stream copies into its heap buffer anyway, so the arrays
+ * are written directly, a direct buffer would only add another copy.
+ * Eviction approximates LRU with a clock (second chance), so that a hit only
+ * sets a flag and each victim is found in O(1) amortized.
+ * The contents are copied rather than mapped, so that truncating a cached
+ * file can never fault the reader.
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+public class SmallFileCache {
+
+    private static final double EVICTION_RATIO = 0.9; // Evict down to 90% to avoid evicting on every put
+
+    private final Map<Path, Entry> cache = new ConcurrentHashMap<>();
+    private final Queue<Entry> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger garbage = new AtomicInteger(); // Replaced or invalidated entries still in clock
+    private final AtomicLong totalSize = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final long maxFileSize;
+    private final long maxTotalSize;
+
+    public SmallFileCache(long maxFileSize, long maxTotalSize) {
+        this.maxFileSize = maxFileSize;
+        this.maxTotalSize = maxTotalSize;
+    }
+
+    /** Get contents of the file version (shared, must not be modified), or null if it is not cacheable */
+    public byte[] get(Path path, Metadata metadata) throws IOException {
+        if (metadata.size() > maxFileSize || metadata.size() > Integer.MAX_VALUE) return null;
+
+        Entry entry = cache.get(path);
+        if (entry != null && entry.etag.equals(metadata.etag())) {
+            hits.increment();
+            entry.referenced = true;
+            return entry.contents;
+        }
+
+        misses.increment();
+        byte[] contents = load(path, (int) metadata.size());
+        if (contents == null) return null;
+
+        entry = new Entry(path, metadata.etag(), contents);
+        Entry previous = cache.put(path, entry);
+        clock.offer(entry);
+        if (previous != null) collectGarbage();
+        long size = totalSize.addAndGet(entry.size() - (previous != null ? previous.size() : 0));
+        if (size > maxTotalSize) evict();
+        return contents;
+    }
+
+    /** Invalidate cached contents of specified path */
+    public void invalidate(Path path) {
+        Entry entry = cache.remove(path);
+        if (entry != null) {
+            totalSize.addAndGet(-entry.size());
+            collectGarbage();
+        }
+    }
+
+    /** Get statistics */
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), cache.size(), totalSize.get());
+    }
+
+    /** Read file into array, return null if the size changed while reading */
+    private byte[] load(Path path, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) == -1) return null;
+            }
+        }
+        return buffer.array();
+    }
+
+    /** Count an entry left in the clock after removed from map, purge the clock when it is mostly garbage */
+    private void collectGarbage() {
+        if (garbage.incrementAndGet() <= cache.size()) return;
+        synchronized (this) {
+            garbage.set(0);
+            clock.removeIf(entry -> cache.get(entry.path) != entry);
+        }
+    }
+
+    /**
+     * Sweep the clock until the total size is under limit, referenced entries
+     * get a second chance, replaced or invalidated entries are dropped
+     */
+    private synchronized void evict() {
+        long target = (long) (maxTotalSize * EVICTION_RATIO);
+        Entry entry;
+        while (totalSize.get() > target && (entry = clock.poll()) != null) {
+            if (cache.get(entry.path) != entry) {
+                garbage.updateAndGet(count -> count > 0 ? count - 1 : 0);
+            } else if (entry.referenced) {
+                entry.referenced = false;
+                clock.offer(entry);
+            } else if (cache.remove(entry.path, entry)) {
+                totalSize.addAndGet(-entry.size());
+                evictions.increment();
+            }
+        }
+    }
+
+    /** Cached Contents of File Version */
+    private static class Entry {
+        private final Path path;
+        private final String etag;
+        private final byte[] contents;
+        private volatile boolean referenced;
+
+        private Entry(Path path, String etag, byte[] contents) {
+            this.path = path;
+            this.etag = etag;
+            this.contents = contents;
+        }
+
+        private int size() {
+            return contents.length;
+        }
+    }
+
+    /** Cache Statistics */
+    public record Stats(long hits, long misses, long evictions, int count, long size) { }
+
+}
\ No newline at end of file
@@ -0,0 +1,213 @@
+package com.arraywork.autumn.helper;
+
+import java.io.Closeable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Timer Wheel
+ * Hierarchical timing wheel driven by a single periodic tick, so that the
+ * queue of the scheduler stays constant however many timeouts are added.
+ * Scheduling and cancelling are lock-free (queued and then applied by the
+ * ticking thread), and only the buckets which are due get touched.
+ * Tasks run on the ticking thread and therefore must be short. The ticking
+ * thread starts on the first schedule, so an idle wheel costs no thread.
+ *
+ * @author Marco
+ * @copyright ArrayWork Inc.
+ * @since 2026/10/18
+ */
+@Slf4j
+public class TimerWheel implements Closeable {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS; // 64 buckets per level
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4; // Covers 64^4 ticks, farther ones are cascaded repeatedly
+    private static final long MAX_DELTA = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    private final Bucket[][] wheels = new Bucket[LEVELS][WHEEL_SIZE];
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final long tickNanos;
+    private final long startTime = System.nanoTime();
+    private long currentTick; // Only accessed by the ticking thread
+
+    public TimerWheel(String name, long tickDuration, TimeUnit timeUnit) {
+        this.tickNanos = timeUnit.toNanos(tickDuration);
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < WHEEL_SIZE; i++) wheel[i] = new Bucket();
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Schedule the task to run after the delay (rounded up to the tick) */
+    public Timeout schedule(Runnable task, long delay, TimeUnit timeUnit) {
+        long deadline = System.nanoTime() - startTime + Math.max(timeUnit.toNanos(delay), 0);
+        Timeout timeout = new Timeout(this, task, (deadline + tickNanos - 1) / tickNanos);
+        pending.offer(timeout);
+        if (!started.get() && started.compareAndSet(false, true)) {
+            // The first tick catches up from the start time
+            scheduler.scheduleAtFixedRate(this::tick, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+        }
+        return timeout;
+    }
+
+    /** Stop ticking, the pending timeouts will never run */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /** Advance to the tick of current time, catching up if the scheduler was late */
+    private void tick() {
+        try {
+            long target = (System.nanoTime() - startTime) / tickNanos;
+            while (currentTick < target) {
+                currentTick++;
+                purgeCancelled();
+                drainPending();
+                cascade();
+                fire(wheels[0][(int) (currentTick & WHEEL_MASK)]);
+            }
+        } catch (Throwable e) {
+            // Any exception would suppress the subsequent ticks
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    private void purgeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) timeout.bucket.remove(timeout);
+        }
+    }
+
+    private void drainPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (!timeout.isCancelled()) place(timeout);
+        }
+    }
+
+    /** Re-place the timeouts of higher level bucket when the lower level wraps around */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = WHEEL_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) break;
+            Timeout timeout = wheels[level][(int) ((currentTick >> shift) & WHEEL_MASK)].detach();
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.next = timeout.prev = null;
+                if (!timeout.isCancelled()) place(timeout);
+                timeout = next;
+            }
+        }
+    }
+
+    private void fire(Bucket bucket) {
+        Timeout timeout = bucket.detach();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.next = timeout.prev = null;
+            if (timeout.deadline > currentTick) {
+                if (!timeout.isCancelled()) place(timeout);
+            } else if (!timeout.isCancelled()) {
+                try {
+                    timeout.task.run();
+                } catch (Throwable e) {
+                    log.error(e.getMessage(), e);
+                }
+            }
+            timeout = next;
+        }
+    }
+
+    /** Place the timeout into the bucket of the lowest level which can hold its delta */
+    private void place(Timeout timeout) {
+        long deadline = Math.max(timeout.deadline, currentTick);
+        long delta = Math.min(deadline - currentTick, MAX_DELTA);
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (WHEEL_BITS * (level + 1))) level++;
+        long slot = (currentTick + delta) >> (WHEEL_BITS * level);
+        wheels[level][(int) (slot & WHEEL_MASK)].add(timeout);
+    }
+
+    /** Handle of Scheduled Task */
+    public static class Timeout {
+
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final TimerWheel wheel;
+        private final Runnable task;
+        private final long deadline;
+        private Bucket bucket;
+        private Timeout prev, next;
+
+        private Timeout(TimerWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /** Cancel the task, it will be unlinked on the next tick */
+        public void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                wheel.cancelled.offer(this);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+
+    }
+
+    /** Doubly Linked Bucket (only accessed by the ticking thread) */
+    private static class Bucket {
+
+        private Timeout head, tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (tail == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.bucket != this) return;
+            if (timeout.prev != null) timeout.prev.next = timeout.next;
+            else head = timeout.next;
+            if (timeout.next != null) timeout.next.prev = timeout.prev;
+            else tail = timeout.prev;
+            timeout.prev = timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /** Detach all timeouts and return the head */
+        private Timeout detach() {
+            Timeout timeout = head;
+            for (Timeout t = head; t != null; t = t.next) t.bucket = null;
+            head = tail = null;
+            return timeout;
+        }
+
+    }
+
+}
\ No newline at end of file
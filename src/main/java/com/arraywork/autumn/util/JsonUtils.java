@@ -8,6 +8,7 @@ import java.util.List;
 import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -113,6 +114,11 @@ public class JsonUtils {
         }
     }
 
+    /** Copy the configured mapper for another data format (e.g. CBOR) */
+    public static ObjectMapper copyWith(JsonFactory factory) {
+        return mapper.copyWith(factory);
+    }
+
     /** Convert an object to Map */
     public static Map<String, Object> convertToMap(Object object) {
         return mapper.convertValue(object, new TypeReference<>() { });